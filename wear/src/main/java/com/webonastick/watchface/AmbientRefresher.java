@@ -7,17 +7,35 @@ import android.content.Context;
 import android.content.ContextWrapper;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.os.Handler;
+import android.os.SystemClock;
 import android.util.Log;
 
 import static android.app.AlarmManager.RTC_WAKEUP;
 
+/**
+ * Wakes the watch face up in ambient mode when, and only when, its
+ * next frame would differ from the one on screen.
+ *
+ * The watch face says when that is, after each ambient frame, through
+ * {@link #scheduleAt}.  No alarm is armed for changes due at or shortly
+ * before the next minute: the system's time tick redraws the face then
+ * anyway.  Alarms are given a short window, so that the system can
+ * batch them with other wakeups; they never fire early.
+ */
 public class AmbientRefresher {
-    private int seconds = 10;
     private static final String AMBIENT_UPDATE_ACTION = "com.webonastick.watchface.action.AMBIENT_UPDATE";
 
     private static final String TAG = "AmbientRefresher";
 
+    /* time ticks come once a minute, on the minute */
+    private static final long TIME_TICK_MS = 60000;
+
+    /* a change due this close before a time tick waits for the tick */
+    private static final long COALESCE_MS = 2000;
+
+    /* how late an alarm may fire, so that the system can batch it */
+    private static final long WINDOW_MS = 1000;
+
     private Intent intent = null;
     private PendingIntent pendingIntent = null;
     private BroadcastReceiver broadcastReceiver = null;
@@ -25,54 +43,119 @@ public class AmbientRefresher {
     private IntentFilter intentFilter = null;
     private boolean receiverRegistered = false;
 
-    private Handler handler = null;
     private Runnable runnable = null;
     private ContextWrapper contextWrapper = null;
 
+    /* wall clock time the alarm is armed for, or -1 */
+    private long alarmTimeMs = -1;
+
+    /* counters since start(), for comparing schedules */
+    private long startElapsedMs;
+    private long wakeups = 0;
+    private long coalesced = 0;
+
     public AmbientRefresher(ContextWrapper contextWrapper, Runnable runnable) {
         this.contextWrapper = contextWrapper;
         this.runnable = runnable;
     }
 
-    private void handle() {
-        if (alarmManager == null) {
-            alarmManager = (AlarmManager) contextWrapper.getSystemService(Context.ALARM_SERVICE);
-            intent = new Intent(AMBIENT_UPDATE_ACTION);
-            pendingIntent = PendingIntent.getBroadcast(
-                    contextWrapper.getBaseContext(), 0, intent, PendingIntent.FLAG_UPDATE_CURRENT
-            );
-            broadcastReceiver = new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    if (runnable != null) {
-                        runnable.run();
-                    }
-                    handle();
-                }
-            };
-            intentFilter = new IntentFilter(AMBIENT_UPDATE_ACTION);
+    private void init() {
+        if (alarmManager != null) {
+            return;
         }
+        alarmManager = (AlarmManager) contextWrapper.getSystemService(Context.ALARM_SERVICE);
+        intent = new Intent(AMBIENT_UPDATE_ACTION);
+        pendingIntent = PendingIntent.getBroadcast(
+                contextWrapper.getBaseContext(), 0, intent, PendingIntent.FLAG_UPDATE_CURRENT
+        );
+        broadcastReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                alarmTimeMs = -1;
+                wakeups += 1;
+                if (runnable != null) {
+                    runnable.run();
+                }
+            }
+        };
+        intentFilter = new IntentFilter(AMBIENT_UPDATE_ACTION);
+    }
+
+    public void start() {
+        init();
         if (!receiverRegistered) {
             contextWrapper.registerReceiver(broadcastReceiver, intentFilter);
             receiverRegistered = true;
         }
-        long timeMs = System.currentTimeMillis();
-        long delayMs = (seconds * 1000) - timeMs % (seconds * 1000);
-        long triggerTimeMs = timeMs + delayMs;
-        alarmManager.setExact(RTC_WAKEUP, triggerTimeMs, pendingIntent);
+        alarmTimeMs = -1;
+        startElapsedMs = SystemClock.elapsedRealtime();
+        wakeups = 0;
+        coalesced = 0;
     }
 
-    public void start() {
-        handle();
+    /**
+     * Arranges for the watch face to be redrawn at {@code timeMs}, wall
+     * clock time, unless the next time tick comes first or about then.
+     * Replaces whatever was scheduled before.
+     *
+     * @param timeMs when the next frame would differ from the last one;
+     *               {@link Long#MAX_VALUE} if it never would.
+     */
+    public void scheduleAt(long timeMs) {
+        if (!receiverRegistered) {
+            return;
+        }
+        long nowMs = System.currentTimeMillis();
+        long nextTickMs = nowMs - nowMs % TIME_TICK_MS + TIME_TICK_MS;
+        if (timeMs >= nextTickMs - COALESCE_MS) {
+            if (alarmTimeMs != -1) {
+                alarmManager.cancel(pendingIntent);
+                alarmTimeMs = -1;
+            }
+            coalesced += 1;
+            return;
+        }
+        if (timeMs == alarmTimeMs) {
+            return;
+        }
+        alarmManager.setWindow(RTC_WAKEUP, timeMs, WINDOW_MS, pendingIntent);
+        alarmTimeMs = timeMs;
     }
 
     public void stop() {
         if (alarmManager != null) {
             alarmManager.cancel(pendingIntent);
         }
+        alarmTimeMs = -1;
         if (receiverRegistered) {
             contextWrapper.unregisterReceiver(broadcastReceiver);
             receiverRegistered = false;
+            Log.d(TAG, toString());
         }
     }
+
+    public long getWakeups() {
+        return wakeups;
+    }
+
+    /**
+     * Returns how many frames left their redraw to the time tick.
+     */
+    public long getCoalesced() {
+        return coalesced;
+    }
+
+    /**
+     * Returns the alarm wakeups per hour since {@link #start()}.
+     */
+    public float getWakeupsPerHour() {
+        long elapsedMs = SystemClock.elapsedRealtime() - startElapsedMs;
+        return elapsedMs <= 0 ? 0f : wakeups * 3600000f / elapsedMs;
+    }
+
+    @Override
+    public String toString() {
+        return "ambient refresh: " + wakeups + " wakeups (" + Math.round(getWakeupsPerHour()) + "/h), "
+                + coalesced + " coalesced with time ticks";
+    }
 }
@@ -0,0 +1,88 @@
+package com.webonastick.watchface;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+
+/**
+ * Keeps the battery level in a primitive field, updated from a single
+ * ACTION_BATTERY_CHANGED receiver, so that drawing code can read it
+ * without any binder calls or allocations.
+ */
+public class BatteryLevelMonitor {
+    private float percentage = -1f;
+    private boolean receiverRegistered = false;
+
+    private final IntentFilter intentFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+    private final BroadcastReceiver broadcastReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            update(intent);
+        }
+    };
+
+    private Runnable runnable = null;
+    private ContextWrapper contextWrapper = null;
+
+    /**
+     * @param runnable run whenever the reported percentage changes; may be null.
+     */
+    public BatteryLevelMonitor(ContextWrapper contextWrapper, Runnable runnable) {
+        this.contextWrapper = contextWrapper;
+        this.runnable = runnable;
+    }
+
+    public void start() {
+        if (receiverRegistered) {
+            return;
+        }
+        /* ACTION_BATTERY_CHANGED is sticky, so registering hands us the current level. */
+        Intent batteryStatus = contextWrapper.registerReceiver(broadcastReceiver, intentFilter);
+        receiverRegistered = true;
+        update(batteryStatus);
+    }
+
+    public void stop() {
+        if (!receiverRegistered) {
+            return;
+        }
+        contextWrapper.unregisterReceiver(broadcastReceiver);
+        receiverRegistered = false;
+    }
+
+    /**
+     * Returns the last known battery level from 0 to 100, or -1 if unknown.
+     */
+    public float getPercentage() {
+        return percentage;
+    }
+
+    private void update(Intent batteryStatus) {
+        if (batteryStatus == null) {
+            update(-1, -1);
+        } else {
+            update(batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1),
+                    batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1));
+        }
+    }
+
+    /**
+     * Takes a level out of {@code scale}, as ACTION_BATTERY_CHANGED
+     * reports it; package-private so that tests can play the receiver.
+     */
+    void update(int batteryLevel, int batteryScale) {
+        float newPercentage = -1f;
+        if (batteryLevel >= 0 && batteryScale > 0) {
+            newPercentage = batteryLevel * 100f / batteryScale;
+        }
+        if (newPercentage != percentage) {
+            percentage = newPercentage;
+            if (runnable != null) {
+                runnable.run();
+            }
+        }
+    }
+}
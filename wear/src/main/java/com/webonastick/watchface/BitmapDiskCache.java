@@ -0,0 +1,192 @@
+package com.webonastick.watchface;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+
+/**
+ * Rendered bitmaps kept on disk, so that a restarted process can load
+ * them instead of drawing them again.
+ *
+ * Each entry is one file holding a short header and the raw pixels, in
+ * the bitmap's own config, so loading is a copy from a memory-mapped
+ * file rather than a decode.  The header holds a key describing
+ * everything the pixels depend on (size, colors, app version...); an
+ * entry whose key does not match is a miss, and is overwritten by the
+ * next {@link #save}.
+ *
+ * Several instances may share a directory, from different threads, as
+ * long as each thread only uses its own instance.
+ *
+ * Entries are written to a temporary file, synced, then renamed into
+ * place.  An entry that cannot be parsed all the same is deleted when
+ * it is loaded, and temporary files left behind by a save that never
+ * finished are deleted when the cache is opened.
+ */
+public class BitmapDiskCache {
+    private static final String TAG = "BitmapDiskCache";
+
+    private static final int MAGIC = 0x42444331; /* "BDC1" */
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /* temporary files younger than this may belong to a save still going on */
+    private static final long STALE_TEMP_FILE_MS = 60 * 1000;
+
+    private final File dir;
+    private final String tag;
+    private final CacheStats stats;
+
+    public BitmapDiskCache(File dir, String tag) {
+        this.dir = dir;
+        this.tag = tag;
+        stats = new CacheStats("disk cache " + dir.getName());
+        deleteStaleTempFiles();
+    }
+
+    private void deleteStaleTempFiles() {
+        File[] files = dir.listFiles();
+        if (files == null) {
+            return;
+        }
+        long staleMs = System.currentTimeMillis() - STALE_TEMP_FILE_MS;
+        for (File file : files) {
+            if (file.getName().endsWith(TEMP_SUFFIX) && file.lastModified() < staleMs && !file.delete()) {
+                Log.w(tag, TAG + ": cannot delete " + file);
+            }
+        }
+    }
+
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Returns the bitmap saved under {@code name} with the same key, or
+     * null if there is none or it cannot be read.  An entry that cannot
+     * be parsed is deleted, so that it is not read again.
+     */
+    public Bitmap load(String name, String key) {
+        File file = new File(dir, name);
+        if (!file.exists()) {
+            return null;
+        }
+        Bitmap bitmap = null;
+        boolean corrupt = false;
+        try (RandomAccessFile input = new RandomAccessFile(file, "r")) {
+            FileChannel channel = input.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC) {
+                corrupt = true;
+            } else if (key.equals(readString(buffer))) {
+                Bitmap.Config config = Bitmap.Config.valueOf(readString(buffer));
+                int width  = buffer.getInt();
+                int height = buffer.getInt();
+                int byteCount = buffer.getInt();
+                if (buffer.remaining() != byteCount) {
+                    Log.w(tag, TAG + ": " + file + " is truncated");
+                    corrupt = true;
+                } else {
+                    bitmap = Bitmap.createBitmap(width, height, config);
+                    if (bitmap.getByteCount() == byteCount) {
+                        bitmap.copyPixelsFromBuffer(buffer);
+                    } else {
+                        bitmap.recycle();
+                        bitmap = null;
+                        corrupt = true;
+                    }
+                }
+            }
+        } catch (IOException e) {
+            Log.e(tag, TAG + ": cannot read " + file + ": " + e.getLocalizedMessage());
+            return null;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            /* a short or garbled header; IllegalArgumentException also covers a bad config or size */
+            Log.e(tag, TAG + ": cannot parse " + file + ": " + e);
+            if (bitmap != null) {
+                bitmap.recycle();
+                bitmap = null;
+            }
+            corrupt = true;
+        }
+        if (corrupt && !file.delete()) {
+            Log.w(tag, TAG + ": cannot delete " + file);
+        }
+        if (bitmap != null) {
+            stats.hit();
+        }
+        return bitmap;
+    }
+
+    /**
+     * Saves a bitmap under {@code name}, replacing whatever was there.
+     */
+    public void save(String name, String key, Bitmap bitmap) {
+        stats.rebuild();
+        if (!dir.isDirectory() && !dir.mkdirs()) {
+            Log.e(tag, TAG + ": cannot create " + dir);
+            return;
+        }
+        File file = new File(dir, name);
+        File tempFile;
+        try {
+            /* unique, in case another thread is saving the same entry */
+            tempFile = File.createTempFile(name, TEMP_SUFFIX, dir);
+        } catch (IOException e) {
+            Log.e(tag, TAG + ": cannot write " + file + ": " + e.getLocalizedMessage());
+            return;
+        }
+        ByteBuffer pixels = ByteBuffer.allocate(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(pixels);
+        try (FileOutputStream fileOutput = new FileOutputStream(tempFile)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(fileOutput));
+            output.writeInt(MAGIC);
+            writeString(output, key);
+            writeString(output, bitmap.getConfig().name());
+            output.writeInt(bitmap.getWidth());
+            output.writeInt(bitmap.getHeight());
+            output.writeInt(pixels.capacity());
+            output.write(pixels.array());
+            output.flush();
+            /* on disk before the rename, so that a crash cannot leave a renamed but partial entry */
+            fileOutput.getFD().sync();
+        } catch (IOException e) {
+            Log.e(tag, TAG + ": cannot write " + file + ": " + e.getLocalizedMessage());
+            tempFile.delete();
+            return;
+        }
+        /* readers never see a half-written entry */
+        if (!tempFile.renameTo(file)) {
+            Log.e(tag, TAG + ": cannot replace " + file);
+            tempFile.delete();
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String s) throws IOException {
+        byte[] bytes = s.getBytes(UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalArgumentException("bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+}
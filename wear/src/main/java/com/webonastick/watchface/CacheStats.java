@@ -0,0 +1,49 @@
+package com.webonastick.watchface;
+
+/**
+ * Hit and rebuild counters for a rendering cache.
+ */
+public class CacheStats {
+    private final String name;
+    private long hits = 0;
+    private long rebuilds = 0;
+
+    public CacheStats(String name) {
+        this.name = name;
+    }
+
+    public void hit() {
+        hits += 1;
+    }
+
+    public void rebuild() {
+        rebuilds += 1;
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getRebuilds() {
+        return rebuilds;
+    }
+
+    /**
+     * Returns the fraction of lookups served from the cache, from 0 to 1.
+     */
+    public float getHitRate() {
+        long total = hits + rebuilds;
+        return total == 0 ? 0f : (float)hits / total;
+    }
+
+    public void reset() {
+        hits = 0;
+        rebuilds = 0;
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + hits + " hits, " + rebuilds + " rebuilds, "
+                + Math.round(getHitRate() * 100f) + "% hit rate";
+    }
+}
@@ -0,0 +1,128 @@
+package com.webonastick.watchface;
+
+import android.util.Log;
+
+/**
+ * Chooses the interactive frame rate and computes when the next frame
+ * is due.
+ *
+ * Frames are aligned so that one always lands exactly on each second
+ * boundary, whatever the rate.  The rate drops from the preferred one
+ * when the battery is low, or when frames take longer than their share
+ * of the frame period, and climbs back once they are comfortably fast
+ * again.
+ */
+public class FrameRateScheduler {
+    private static final String TAG = "FrameRateScheduler";
+
+    /* supported rates, in frames per second, slowest first */
+    public static final int RATE_TICK         = 1;
+    public static final int RATE_SWEEP        = 5;
+    public static final int RATE_SMOOTH_SWEEP = 30;
+    public static final int RATE_FLUID_SWEEP  = 60;
+
+    private static final int[] RATES = {
+            RATE_TICK, RATE_SWEEP, RATE_SMOOTH_SWEEP, RATE_FLUID_SWEEP
+    };
+
+    /* at or below this battery percentage, only tick once a second */
+    private static final float LOW_BATTERY_PERCENTAGE = 15f;
+
+    /* a frame may take this fraction of the frame period before the rate drops */
+    private static final float FRAME_BUDGET_FRACTION = 0.5f;
+
+    /* consecutive frames within budget at the next higher rate before climbing back */
+    private static final int RECOVERY_FRAMES = 120;
+
+    /* weight of the latest frame in the moving average of frame times */
+    private static final float FRAME_TIME_SMOOTHING = 0.1f;
+
+    private int preferredRateIndex;
+    private int rateIndex;
+    private boolean lowBattery = false;
+
+    private float averageFrameNanos = 0f;
+    private int framesWithinRecoveryBudget = 0;
+
+    public FrameRateScheduler(int preferredRate) {
+        setPreferredRate(preferredRate);
+    }
+
+    /**
+     * Sets the rate to use when nothing calls for a lower one.  Rates
+     * that are not supported are rounded down to one that is.
+     */
+    public void setPreferredRate(int preferredRate) {
+        preferredRateIndex = 0;
+        for (int i = 0; i < RATES.length; i += 1) {
+            if (RATES[i] <= preferredRate) {
+                preferredRateIndex = i;
+            }
+        }
+        rateIndex = preferredRateIndex;
+        averageFrameNanos = 0f;
+        framesWithinRecoveryBudget = 0;
+    }
+
+    /**
+     * @param percentage 0 to 100, or negative if unknown.
+     */
+    public void setBatteryPercentage(float percentage) {
+        lowBattery = percentage >= 0f && percentage <= LOW_BATTERY_PERCENTAGE;
+    }
+
+    /**
+     * Returns the current frame rate, in frames per second.
+     */
+    public int getRate() {
+        return lowBattery ? RATE_TICK : RATES[rateIndex];
+    }
+
+    /**
+     * Returns the delay from {@code timeMs} to the next frame.
+     */
+    public long getDelayMs(long timeMs) {
+        int rate = getRate();
+        long msInSecond = timeMs % 1000;
+        long nextFrame = msInSecond * rate / 1000 + 1;
+        /* round up, so that the last frame of each second is the second boundary itself */
+        long nextFrameMs = (nextFrame * 1000 + rate - 1) / rate;
+        return Math.max(1, nextFrameMs - msInSecond);
+    }
+
+    /**
+     * Records how long a frame took to render, and adjusts the rate if needed.
+     */
+    public void onFrameRendered(long frameNanos) {
+        if (averageFrameNanos == 0f) {
+            averageFrameNanos = frameNanos;
+        } else {
+            averageFrameNanos += (frameNanos - averageFrameNanos) * FRAME_TIME_SMOOTHING;
+        }
+
+        if (rateIndex > 0 && averageFrameNanos > budgetNanos(RATES[rateIndex])) {
+            rateIndex -= 1;
+            framesWithinRecoveryBudget = 0;
+            Log.i(TAG, "frames take " + Math.round(averageFrameNanos / 1000f) + " us; dropping to "
+                    + RATES[rateIndex] + " fps");
+            return;
+        }
+
+        if (rateIndex < preferredRateIndex
+                && averageFrameNanos < budgetNanos(RATES[rateIndex + 1]) / 2f) {
+            framesWithinRecoveryBudget += 1;
+            if (framesWithinRecoveryBudget >= RECOVERY_FRAMES) {
+                rateIndex += 1;
+                framesWithinRecoveryBudget = 0;
+                Log.i(TAG, "frames take " + Math.round(averageFrameNanos / 1000f) + " us; going back to "
+                        + RATES[rateIndex] + " fps");
+            }
+        } else {
+            framesWithinRecoveryBudget = 0;
+        }
+    }
+
+    private static float budgetNanos(int rate) {
+        return 1e9f / rate * FRAME_BUDGET_FRACTION;
+    }
+}
@@ -0,0 +1,152 @@
+package com.webonastick.watchface;
+
+import android.util.Log;
+
+import java.util.Arrays;
+
+/**
+ * Per-phase frame timings, kept in a fixed-size ring buffer.
+ *
+ * Meant to be written from the thread that draws, without locks or
+ * allocations: phases add to the current frame, and {@link #endFrame}
+ * commits it to the ring.  Readers only see committed frames.
+ */
+public class FrameTimings {
+    private static final String TAG = "FrameTimings";
+
+    private final String[] phaseNames;
+    private final int capacity;
+
+    /* [phase][frame]; the last "phase" is the whole frame */
+    private final long[][] ring;
+    private final long[] current;
+    private final long[] scratch;
+
+    private final String[] setupNames;
+    private final long[] setupNanos;
+
+    private long frameStartNanos = 0;
+    private volatile long frameCount = 0;
+    private long missedDeadlines = 0;
+
+    public FrameTimings(String[] phaseNames, String[] setupNames, int capacity) {
+        this.phaseNames = phaseNames;
+        this.setupNames = setupNames;
+        this.capacity = capacity;
+        ring = new long[phaseNames.length + 1][capacity];
+        current = new long[phaseNames.length];
+        scratch = new long[capacity];
+        setupNanos = new long[setupNames.length];
+    }
+
+    public int getPhaseCount() {
+        return phaseNames.length;
+    }
+
+    public String getPhaseName(int phase) {
+        return phase == phaseNames.length ? "frame" : phaseNames[phase];
+    }
+
+    public void beginFrame() {
+        Arrays.fill(current, 0);
+        frameStartNanos = System.nanoTime();
+    }
+
+    public void addPhase(int phase, long nanos) {
+        current[phase] += nanos;
+    }
+
+    /**
+     * Commits the current frame.
+     *
+     * @param deadlineNanos longest acceptable frame time; 0 if frames
+     *                      have no deadline, e.g. in ambient mode.
+     */
+    public void endFrame(long deadlineNanos) {
+        long frameNanos = System.nanoTime() - frameStartNanos;
+        int index = (int)(frameCount % capacity);
+        for (int phase = 0; phase < phaseNames.length; phase += 1) {
+            ring[phase][index] = current[phase];
+        }
+        ring[phaseNames.length][index] = frameNanos;
+        if (deadlineNanos > 0 && frameNanos > deadlineNanos) {
+            missedDeadlines += 1;
+        }
+        frameCount += 1;
+    }
+
+    /**
+     * Records the duration of a one-off setup step, such as building a
+     * background.
+     */
+    public void recordSetup(int step, long nanos) {
+        setupNanos[step] = nanos;
+    }
+
+    public long getSetupNanos(int step) {
+        return setupNanos[step];
+    }
+
+    public long getFrameCount() {
+        return frameCount;
+    }
+
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    /**
+     * Fills {@code out} with percentiles of a phase over the frames in
+     * the ring, or of the whole frame if {@code phase} is
+     * {@link #getPhaseCount()}.
+     *
+     * @param percentiles e.g. {50, 95, 99}
+     * @param out         nanoseconds, one per percentile; zeros if no frames yet.
+     */
+    public void getPercentiles(int phase, int[] percentiles, long[] out) {
+        int count = (int)Math.min(frameCount, capacity);
+        if (count == 0) {
+            Arrays.fill(out, 0);
+            return;
+        }
+        System.arraycopy(ring[phase], 0, scratch, 0, count);
+        Arrays.sort(scratch, 0, count);
+        for (int i = 0; i < percentiles.length; i += 1) {
+            int rank = (int)Math.ceil(percentiles[i] / 100.0 * count) - 1;
+            out[i] = scratch[Math.max(0, Math.min(count - 1, rank))];
+        }
+    }
+
+    public void reset() {
+        frameCount = 0;
+        missedDeadlines = 0;
+    }
+
+    /**
+     * Logs percentiles for every phase, one line each, tab-separated,
+     * for collection from logcat.
+     */
+    public void dump(String tag) {
+        dump(tag, TAG);
+    }
+
+    /**
+     * Same as {@link #dump(String)}, with every line starting with
+     * {@code name}, to tell several instances apart.
+     */
+    public void dump(String tag, String name) {
+        int[] percentiles = {50, 95, 99};
+        long[] values = new long[percentiles.length];
+        Log.i(tag, name + "\tframes\t" + frameCount + "\tmissed\t" + missedDeadlines);
+        for (int phase = 0; phase <= phaseNames.length; phase += 1) {
+            getPercentiles(phase, percentiles, values);
+            Log.i(tag, name + "\t" + getPhaseName(phase)
+                    + "\tp50_us\t" + values[0] / 1000
+                    + "\tp95_us\t" + values[1] / 1000
+                    + "\tp99_us\t" + values[2] / 1000);
+        }
+        for (int step = 0; step < setupNames.length; step += 1) {
+            Log.i(tag, name + "\t" + setupNames[step] + "\tlast_us\t" + setupNanos[step] / 1000);
+        }
+    }
+}
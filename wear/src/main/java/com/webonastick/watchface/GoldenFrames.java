@@ -0,0 +1,124 @@
+package com.webonastick.watchface;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compares rendered frames against the checksums shipped with the
+ * source, so that a change meant to only make rendering faster can be
+ * shown not to change a single pixel.
+ *
+ * The expected checksums are read from one tab-separated
+ * {@code key checksum} line per frame; lines starting with # are
+ * comments.  A frame with no expected checksum fails like one that
+ * differs.  Every checksum computed is written to a file of the same
+ * format, so that after a change meant to alter rendering, the new
+ * checksums can be reviewed and committed in place of the old.  One
+ * tab-separated line is logged per frame, with its render time.
+ */
+public class GoldenFrames {
+    private static final String TAG = "GoldenFrames";
+
+    private final File actualFile;
+    private final String tag;
+    private final Map<String, String> expected = new LinkedHashMap<>();
+    private final Map<String, String> actual = new LinkedHashMap<>();
+
+    private int matched = 0;
+    private int mismatched = 0;
+    private int missing = 0;
+
+    /**
+     * @param expected   the expected checksums; closed once read.  If
+     *                   null, every frame fails.
+     * @param actualFile where {@link #finish} writes the checksums
+     *                   computed.
+     */
+    public GoldenFrames(InputStream expected, File actualFile, String tag) {
+        this.actualFile = actualFile;
+        this.tag = tag;
+        if (expected != null) {
+            load(expected);
+        }
+    }
+
+    private void load(InputStream in) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, "UTF-8"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int tab = line.indexOf('\t');
+                if (tab > 0 && !line.startsWith("#")) {
+                    expected.put(line.substring(0, tab), line.substring(tab + 1));
+                }
+            }
+        } catch (IOException e) {
+            Log.e(tag, "cannot read expected checksums: " + e.getLocalizedMessage());
+        }
+    }
+
+    /**
+     * Returns a checksum of every pixel of a bitmap.
+     */
+    public static String checksum(Bitmap bitmap) {
+        ByteBuffer buffer = ByteBuffer.allocate(bitmap.getByteCount());
+        bitmap.copyPixelsToBuffer(buffer);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array());
+        return Long.toHexString(crc.getValue());
+    }
+
+    /**
+     * Checks a frame against its expected checksum.
+     *
+     * @param key identifies what was rendered: size, mode, and so on; no tabs.
+     * @return whether the frame has the expected checksum.
+     */
+    public boolean check(String key, Bitmap bitmap, long renderNanos) {
+        String checksum = checksum(bitmap);
+        String expectedChecksum = expected.get(key);
+        actual.put(key, checksum);
+        String result;
+        if (expectedChecksum == null) {
+            missing += 1;
+            result = "MISSING";
+        } else if (expectedChecksum.equals(checksum)) {
+            matched += 1;
+            result = "ok";
+        } else {
+            mismatched += 1;
+            result = "MISMATCH";
+        }
+        Log.i(tag, TAG + "\t" + key + "\t" + result + "\t" + checksum + "\trender_us\t" + renderNanos / 1000);
+        return checksum.equals(expectedChecksum);
+    }
+
+    /**
+     * Writes the checksums computed, and logs a summary.
+     *
+     * @return whether every frame had its expected checksum.
+     */
+    public boolean finish() {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(actualFile))) {
+            for (Map.Entry<String, String> entry : actual.entrySet()) {
+                writer.println(entry.getKey() + "\t" + entry.getValue());
+            }
+        } catch (IOException e) {
+            Log.e(tag, "cannot write " + actualFile + ": " + e.getLocalizedMessage());
+        }
+        Log.i(tag, TAG + "\tmatched\t" + matched + "\tmismatched\t" + mismatched + "\tmissing\t" + missing
+                + "\tactual\t" + actualFile);
+        return mismatched == 0 && missing == 0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.webonastick.watchface;
+
+import android.graphics.Bitmap;
+
+/**
+ * Lit pixel count and light output of a rendered layer or frame, as a
+ * measure of what it costs to show on an OLED screen, where black
+ * pixels draw no power and lit ones draw more the brighter they are.
+ *
+ * A pixel's level is the mean of its red, green and blue components,
+ * times its alpha, from 0 to 1; an ALPHA_8 mask is measured as it
+ * would look drawn in a tint color.  Layers are meant to be measured
+ * once, when they are rendered, and frames estimated by adding up
+ * their layers, which overcounts wherever layers overlap.
+ */
+public class PixelStats {
+    private long pixels;
+    private long litPixels;
+    private double levelSum;
+
+    public PixelStats(long pixels) {
+        this.pixels = pixels;
+    }
+
+    /**
+     * Scans every pixel of a bitmap.
+     *
+     * @param tint color masks are drawn in; ignored for other bitmaps.
+     */
+    public static PixelStats measure(Bitmap bitmap, int tint) {
+        int width  = bitmap.getWidth();
+        int height = bitmap.getHeight();
+        boolean mask = bitmap.getConfig() == Bitmap.Config.ALPHA_8;
+        float tintLevel = level(tint);
+        PixelStats stats = new PixelStats((long)width * height);
+        int[] row = new int[width];
+        for (int y = 0; y < height; y += 1) {
+            bitmap.getPixels(row, 0, width, 0, y, width, 1);
+            for (int x = 0; x < width; x += 1) {
+                int alpha = row[x] >>> 24;
+                float level = (mask ? tintLevel : level(row[x])) * alpha / 255f;
+                if (level > 0f) {
+                    stats.litPixels += 1;
+                    stats.levelSum += level;
+                }
+            }
+        }
+        return stats;
+    }
+
+    private static float level(int color) {
+        return (((color >> 16) & 0xff) + ((color >> 8) & 0xff) + (color & 0xff)) / (3 * 255f);
+    }
+
+    /**
+     * Makes this a copy of {@code other}.
+     */
+    public void set(PixelStats other) {
+        pixels    = other.pixels;
+        litPixels = other.litPixels;
+        levelSum  = other.levelSum;
+    }
+
+    /**
+     * Adds a layer drawn over this one, without changing the pixel
+     * count: the layer is assumed to lie within this one.
+     */
+    public void add(PixelStats layer) {
+        litPixels += layer.litPixels;
+        levelSum  += layer.levelSum;
+    }
+
+    public long getLitPixels() {
+        return Math.min(litPixels, pixels);
+    }
+
+    /**
+     * Returns the fraction of pixels that are lit at all, from 0 to 1.
+     */
+    public float getLitFraction() {
+        return pixels == 0 ? 0f : (float)getLitPixels() / pixels;
+    }
+
+    /**
+     * Returns the average pixel level, from 0 to 1: the display power
+     * relative to a fully white screen.
+     */
+    public float getAverageLevel() {
+        return pixels == 0 ? 0f : (float)Math.min(1.0, levelSum / pixels);
+    }
+
+    @Override
+    public String toString() {
+        return getLitPixels() + " lit pixels (" + Math.round(getLitFraction() * 1000f) / 10f + "%), power "
+                + Math.round(getAverageLevel() * 1000f) / 10f + "% of full white";
+    }
+}
@@ -2,18 +2,50 @@ package com.webonastick.watchface;
 
 import android.content.ContextWrapper;
 import android.os.PowerManager;
+import android.os.SystemClock;
 import android.util.Log;
 
 import static android.content.Context.POWER_SERVICE;
 
+/**
+ * Keeps the screen interactive for a while after the last interaction,
+ * instead of letting it drop to ambient mode after the system timeout.
+ *
+ * One wake lock, not reference counted, is held from the first
+ * interaction until {@code seconds} after the last one.  Interactions
+ * while it is held extend it rather than stack acquisitions, and
+ * {@link #release()} lets go early, when the face is hidden or goes
+ * ambient.  How long each hold lasted goes into a histogram, to tell
+ * what the feature costs in screen-on time.
+ *
+ * This has to be a full wake lock, deprecated as it is: a partial one
+ * only keeps the CPU running, and a watch face has no window to set
+ * FLAG_KEEP_SCREEN_ON on.
+ */
 public class ScreenTimeExtender {
     private static final String TAG = "ScreenTimeExtender";
+
+    /* an interaction less than this much after the last extension does not re-arm the lock */
+    private static final long EXTEND_SLACK_MS = 1000;
+
+    /* upper bounds of the hold duration histogram buckets, in seconds; one more bucket for longer holds */
+    private static final int[] HOLD_BUCKET_SECONDS = {1, 2, 5, 10, 15, 30, 60};
+
     private int seconds = 15;
     private boolean denied = false;
     private PowerManager powerManager = null;
     private PowerManager.WakeLock wakeLock = null;
     private ContextWrapper contextWrapper = null;
 
+    /* elapsedRealtime() times; heldUntilMs is 0 when the lock is not held */
+    private long lastInteractionMs = 0;
+    private long acquiredMs = 0;
+    private long heldUntilMs = 0;
+
+    private final long[] holdHistogram = new long[HOLD_BUCKET_SECONDS.length + 1];
+    private long totalHeldMs = 0;
+    private long extensions = 0;
+
     public ScreenTimeExtender(ContextWrapper contextWrapper, int seconds) {
         this.seconds = seconds;
         this.contextWrapper = contextWrapper;
@@ -25,16 +57,16 @@ public class ScreenTimeExtender {
     public void setTimeout(int seconds) {
         if (seconds > 0) {
             this.seconds = seconds;
-            acquireWakeLock();
+            clearIdle();
         } else {
             this.seconds = 0;
-            releaseWakeLock();
+            release();
         }
     }
 
-    private void acquireWakeLock() {
-        if (seconds <= 0 || denied) {
-            return;
+    private boolean initWakeLock() {
+        if (denied) {
+            return false;
         }
         if (powerManager == null) {
             try {
@@ -42,7 +74,7 @@ public class ScreenTimeExtender {
             } catch (Exception e) {
                 Log.e(TAG, "error creating PowerManager object: " + e.getLocalizedMessage());
                 denied = true;
-                return;
+                return false;
             }
         }
         if (wakeLock == null) {
@@ -51,35 +83,127 @@ public class ScreenTimeExtender {
                         PowerManager.FULL_WAKE_LOCK,
                         "PilotWatch::WakeLockTag"
                 );
+                wakeLock.setReferenceCounted(false);
             } catch (Exception e) {
                 Log.e(TAG, "error creating full wake lock: " + e.getLocalizedMessage());
                 denied = true;
-                return;
+                return false;
             }
         }
-        wakeLock.acquire(seconds * 1000L);
+        return true;
     }
 
-    private void releaseWakeLock() {
-        if (seconds <= 0 || denied) {
+    /**
+     * Records an interaction: acquires the lock, or pushes back the
+     * time it is released.
+     */
+    public void clearIdle() {
+        if (seconds <= 0) {
             return;
         }
-        if (wakeLock != null) {
-            wakeLock.release();
+        long nowMs = SystemClock.elapsedRealtime();
+        lastInteractionMs = nowMs;
+        checkExpired(nowMs);
+        long untilMs = nowMs + seconds * 1000L;
+        if (heldUntilMs != 0 && untilMs - heldUntilMs < EXTEND_SLACK_MS) {
+            return;
         }
+        if (!initWakeLock()) {
+            return;
+        }
+        /* not reference counted: acquiring again only moves the timeout */
+        wakeLock.acquire(untilMs - nowMs);
+        if (heldUntilMs == 0) {
+            acquiredMs = nowMs;
+        } else {
+            extensions += 1;
+        }
+        heldUntilMs = untilMs;
     }
 
-    public void clearIdle() {
+    /**
+     * Called on every interactive frame: notices when the lock has timed
+     * out on its own, and records how long it was held.
+     */
+    public void checkIdle() {
         if (seconds <= 0) {
             return;
         }
-        acquireWakeLock();
+        checkExpired(SystemClock.elapsedRealtime());
     }
 
-    public void checkIdle() {
-        if (seconds <= 0) {
+    /**
+     * Releases the lock now, if it is held.
+     */
+    public void release() {
+        if (heldUntilMs == 0) {
+            return;
+        }
+        long nowMs = SystemClock.elapsedRealtime();
+        if (checkExpired(nowMs)) {
             return;
         }
-        // PLACEHOLDER --- DO NOT DELETE
+        if (wakeLock.isHeld()) {
+            wakeLock.release();
+        }
+        recordHold(nowMs - acquiredMs);
+        heldUntilMs = 0;
+    }
+
+    /**
+     * Returns whether the lock was held and has timed out by now, in
+     * which case it is recorded as released.
+     */
+    private boolean checkExpired(long nowMs) {
+        if (heldUntilMs == 0 || nowMs < heldUntilMs) {
+            return false;
+        }
+        recordHold(heldUntilMs - acquiredMs);
+        heldUntilMs = 0;
+        return true;
+    }
+
+    private void recordHold(long heldMs) {
+        totalHeldMs += heldMs;
+        int bucket = 0;
+        while (bucket < HOLD_BUCKET_SECONDS.length && heldMs >= HOLD_BUCKET_SECONDS[bucket] * 1000L) {
+            bucket += 1;
+        }
+        holdHistogram[bucket] += 1;
+    }
+
+    /**
+     * Returns the elapsedRealtime() of the last interaction, or 0.
+     */
+    public long getLastInteractionMs() {
+        return lastInteractionMs;
+    }
+
+    public boolean isHeld() {
+        return heldUntilMs != 0;
+    }
+
+    public long getTotalHeldMs() {
+        return totalHeldMs;
+    }
+
+    /**
+     * Returns how many holds lasted up to each of 1, 2, 5, 10, 15, 30
+     * and 60 seconds, and longer, in that order.
+     */
+    public long[] getHoldHistogram() {
+        return holdHistogram.clone();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder("screen time extended ")
+                .append(totalHeldMs / 1000).append(" s, ")
+                .append(extensions).append(" extensions, holds:");
+        for (int bucket = 0; bucket < holdHistogram.length; bucket += 1) {
+            result.append(bucket < HOLD_BUCKET_SECONDS.length ? " <" + HOLD_BUCKET_SECONDS[bucket] + "s " : " more ")
+                    .append(holdHistogram[bucket]);
+        }
+        return result.toString();
     }
 }
@@ -0,0 +1,89 @@
+package com.webonastick.watchface;
+
+/**
+ * A fixed-size line of text that can be built up and drawn with
+ * {@link android.graphics.Canvas#drawText(char[], int, int, float, float, android.graphics.Paint)}
+ * without allocating, for overlays redrawn on every frame.
+ *
+ * Text past the end of the buffer is dropped.
+ */
+public class TextLine {
+    private final char[] chars;
+    private int length = 0;
+
+    public TextLine(int capacity) {
+        chars = new char[capacity];
+    }
+
+    public char[] getChars() {
+        return chars;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public TextLine clear() {
+        length = 0;
+        return this;
+    }
+
+    public TextLine append(String s) {
+        int count = Math.min(s.length(), chars.length - length);
+        s.getChars(0, count, chars, length);
+        length += count;
+        return this;
+    }
+
+    public TextLine append(char c) {
+        if (length < chars.length) {
+            chars[length] = c;
+            length += 1;
+        }
+        return this;
+    }
+
+    public TextLine append(long value) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            append((char)('0' + (value / divisor) % 10));
+        }
+        return this;
+    }
+
+    /**
+     * Appends a value with a fixed number of decimals, e.g. nanoseconds
+     * as milliseconds with {@code append(nanos, 1000000, 2)}.
+     */
+    public TextLine append(long value, long unit, int decimals) {
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long scale = 1;
+        for (int i = 0; i < decimals; i += 1) {
+            scale *= 10;
+        }
+        long scaled = (value * scale + unit / 2) / unit;
+        append(scaled / scale);
+        if (decimals > 0) {
+            append('.');
+            for (long divisor = scale / 10; divisor > 0; divisor /= 10) {
+                append((char)('0' + (scaled / divisor) % 10));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars, 0, length);
+    }
+}
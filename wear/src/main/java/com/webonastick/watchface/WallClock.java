@@ -0,0 +1,120 @@
+package com.webonastick.watchface;
+
+import java.util.TimeZone;
+
+/**
+ * Splits a wall clock time into hours, minutes, seconds and
+ * milliseconds, without the cost of a {@link java.util.Calendar}
+ * recomputing every field on every frame.
+ *
+ * The time zone's UTC offset is looked up once, along with the instant
+ * it next changes; until then, or until the time zone or the clock is
+ * changed, decomposing a time is a handful of integer divisions.  The
+ * next change is found by bisection, as {@link TimeZone} has no way to
+ * ask for it, assuming no zone changes its offset twice within
+ * {@link #SEARCH_RANGE_MS}.
+ */
+public class WallClock {
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+    private static final long HOUR_MS   = 60 * MINUTE_MS;
+    private static final long DAY_MS    = 24 * HOUR_MS;
+
+    /* how far ahead to look for the next offset change */
+    private static final long SEARCH_RANGE_MS = DAY_MS;
+
+    private TimeZone timeZone;
+
+    /* the offset is known to hold from validFromMs included to validUntilMs excluded */
+    private int offsetMs;
+    private long validFromMs = 0;
+    private long validUntilMs = 0;
+
+    private int hourOfDay;
+    private int minute;
+    private int second;
+    private int millisecond;
+
+    public WallClock(TimeZone timeZone) {
+        this.timeZone = timeZone;
+    }
+
+    public void setTimeZone(TimeZone timeZone) {
+        this.timeZone = timeZone;
+        invalidate();
+    }
+
+    /**
+     * Forgets the cached offset, for when the time zone rules or the
+     * clock may have changed.
+     */
+    public void invalidate() {
+        validFromMs = 0;
+        validUntilMs = 0;
+    }
+
+    public void setTimeInMillis(long timeMs) {
+        if (timeMs < validFromMs || timeMs >= validUntilMs) {
+            updateOffset(timeMs);
+        }
+        long dayMs = (timeMs + offsetMs) % DAY_MS;
+        if (dayMs < 0) {
+            dayMs += DAY_MS;
+        }
+        int msOfDay = (int)dayMs;
+        hourOfDay   = msOfDay / (int)HOUR_MS;
+        minute      = msOfDay / (int)MINUTE_MS % 60;
+        second      = msOfDay / (int)SECOND_MS % 60;
+        millisecond = msOfDay % (int)SECOND_MS;
+    }
+
+    private void updateOffset(long timeMs) {
+        offsetMs = timeZone.getOffset(timeMs);
+        long lo = timeMs;
+        long hi = timeMs + SEARCH_RANGE_MS;
+        if (timeZone.getOffset(hi) != offsetMs) {
+            /* lo has the old offset, hi the new one */
+            while (hi - lo > 1) {
+                long mid = lo + (hi - lo) / 2;
+                if (timeZone.getOffset(mid) == offsetMs) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+        }
+        validFromMs = timeMs;
+        validUntilMs = hi;
+    }
+
+    /**
+     * Returns the hour, from 0 to 11, as {@link java.util.Calendar#HOUR}.
+     */
+    public int getHour() {
+        return hourOfDay % 12;
+    }
+
+    public int getHourOfDay() {
+        return hourOfDay;
+    }
+
+    public int getMinute() {
+        return minute;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public int getMillisecond() {
+        return millisecond;
+    }
+
+    /**
+     * Returns the offset from UTC in effect at the last time set, in
+     * milliseconds.
+     */
+    public int getOffsetMs() {
+        return offsetMs;
+    }
+}
@@ -0,0 +1,69 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+import com.webonastick.watchface.cockpitwatch.core.DrawTarget;
+
+/**
+ * The {@link DrawTarget} the watch face draws its dial through: one
+ * {@link Paint} per dial element, colored per command.
+ */
+final class CanvasDrawTarget implements DrawTarget {
+    private final Paint[] mPaints = new Paint[ELEMENTS];
+    private final Rect mTextBounds = new Rect();
+    private Canvas mCanvas;
+
+    CanvasDrawTarget(Paint hourTickPaint, Paint minuteTickPaint, Paint batteryTickPaint,
+                     Paint hourTextPaint, Paint batteryTextPaint) {
+        mPaints[HOUR_TICKS]    = hourTickPaint;
+        mPaints[MINUTE_TICKS]  = minuteTickPaint;
+        mPaints[BATTERY_TICKS] = batteryTickPaint;
+        mPaints[HOUR_TEXT]     = hourTextPaint;
+        mPaints[BATTERY_TEXT]  = batteryTextPaint;
+    }
+
+    void setCanvas(Canvas canvas) {
+        mCanvas = canvas;
+    }
+
+    @Override
+    public void save() {
+        mCanvas.save();
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mCanvas.translate(dx, dy);
+    }
+
+    @Override
+    public void restore() {
+        mCanvas.restore();
+    }
+
+    @Override
+    public void drawLines(int element, int color, float[] points) {
+        Paint paint = mPaints[element];
+        paint.setColor(color);
+        mCanvas.drawLines(points, paint);
+    }
+
+    @Override
+    public void drawText(int element, int color, float textSize, String text, float x, float y) {
+        Paint paint = mPaints[element];
+        paint.setColor(color);
+        paint.setTextSize(textSize);
+        mCanvas.drawText(text, x, y, paint);
+    }
+
+    @Override
+    public void measureText(int element, float textSize, String text, float[] size) {
+        Paint paint = mPaints[element];
+        paint.setTextSize(textSize);
+        paint.getTextBounds(text, 0, text.length(), mTextBounds);
+        size[0] = mTextBounds.width();
+        size[1] = mTextBounds.height();
+    }
+}
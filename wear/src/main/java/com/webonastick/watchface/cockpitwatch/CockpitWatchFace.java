@@ -11,9 +11,9 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Path;
+import android.graphics.PorterDuff;
 import android.graphics.Rect;
 import android.graphics.Typeface;
-import android.os.BatteryManager;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
@@ -21,6 +21,8 @@ import android.os.Message;
 import androidx.core.content.ContextCompat;
 
 import android.os.PowerManager;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.SystemProviders;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
@@ -28,34 +30,135 @@ import android.util.Log;
 import android.view.Gravity;
 import android.view.SurfaceHolder;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.ref.WeakReference;
-import java.util.Calendar;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.TimeZone;
-import java.util.concurrent.TimeUnit;
 
 import static android.app.AlarmManager.RTC_WAKEUP;
 
 import com.webonastick.watchface.AmbientRefresher;
+import com.webonastick.watchface.BatteryLevelMonitor;
+import com.webonastick.watchface.BitmapDiskCache;
+import com.webonastick.watchface.CacheStats;
+import com.webonastick.watchface.FrameRateScheduler;
+import com.webonastick.watchface.FrameTimings;
+import com.webonastick.watchface.GoldenFrames;
+import com.webonastick.watchface.PixelStats;
 import com.webonastick.watchface.ScreenTimeExtender;
+import com.webonastick.watchface.TextLine;
+import com.webonastick.watchface.WallClock;
+import com.webonastick.watchface.cockpitwatch.core.DialGeometry;
+import com.webonastick.watchface.cockpitwatch.core.HandAngles;
+import com.webonastick.watchface.cockpitwatch.core.HandShape;
 
 public class CockpitWatchFace extends CanvasWatchFaceService {
     private static final String TAG = "CockpitWatchFace";
 
-    /**
-     * Updates rate in milliseconds for interactive mode. We update
-     * once a second to advance the second hand.
-     */
-    private static final long INTERACTIVE_UPDATE_RATE_MS = TimeUnit.SECONDS.toMillis(1) / 5;
-
     /**
      * Handler message id for updating the time periodically in
      * interactive mode.
      */
     private static final int MSG_UPDATE_TIME = 0;
 
+    /**
+     * Handler message id for building assets that are not needed for
+     * the current frame, once that frame has been shown.
+     */
+    private static final int MSG_IDLE_WORK = 1;
+
+    /**
+     * Handler message id for a dial built by the {@link DialWorker}.
+     */
+    private static final int MSG_DIAL_READY = 2;
+
+    /**
+     * Handler message id for the typeface, loaded by the
+     * {@link DialWorker} for the complications.
+     */
+    private static final int MSG_TYPEFACE_READY = 3;
+
+    /*
+     * Complication slots: one, in the upper half, opposite the battery
+     * gauge, showing the date unless the user picks another provider.
+     */
+    private static final int TOP_COMPLICATION_ID = 0;
+    private static final int[] COMPLICATION_IDS = {TOP_COMPLICATION_ID};
+
+    /**
+     * Names of the timed frame phases and setup steps; see {@link FrameTimings}.
+     */
+    private static final String[] FRAME_PHASE_NAMES = {
+            "background", "battery", "hands", "ambient refresh", "complications"
+    };
+    private static final String[] SETUP_STEP_NAMES = {
+            "hand paths", "background", "ambient background"
+    };
+    private static final int[] HUD_PERCENTILES = {50, 95, 99};
+
+    /*
+     * Sizes and modes the golden frame check renders; modes combine
+     * the GOLDEN_* flags.
+     */
+    private static final int GOLDEN_AMBIENT = 1;
+    private static final int GOLDEN_LOW_BIT = 2;
+    private static final int GOLDEN_BURN_IN = 4;
+    private static final int GOLDEN_MUTE    = 8;
+    private static final int[] GOLDEN_FRAME_SIZES = {240, 360, 480};
+    private static final int[] GOLDEN_FRAME_MODES = {
+            0,
+            GOLDEN_MUTE,
+            GOLDEN_AMBIENT,
+            GOLDEN_AMBIENT | GOLDEN_MUTE,
+            GOLDEN_AMBIENT | GOLDEN_LOW_BIT,
+            GOLDEN_AMBIENT | GOLDEN_BURN_IN,
+            GOLDEN_AMBIENT | GOLDEN_LOW_BIT | GOLDEN_BURN_IN
+    };
+    /* expected checksums, shipped with the source, and where the ones computed are written */
+    private static final String GOLDEN_FRAMES_ASSET = "golden-frames.txt";
+    private static final String GOLDEN_FRAMES_FILE  = "golden-frames-actual.txt";
+    /* the rate decides tick vs. sweep and atlas vs. path second hands, so pin it */
+    private static final int GOLDEN_FRAME_RATE = FrameRateScheduler.RATE_FLUID_SWEEP;
+    /* stands in for whatever provider the user picked, so golden frames do not depend on it */
+    private static final ComplicationContent GOLDEN_COMPLICATION =
+            new FakeComplicationContent("42", "FAKE", 42f, 0f, 100f);
+
+    /*
+     * Offsets, in PIXEL_SHIFT_STEP units and as x, y pairs, that burn-in
+     * protection moves the ambient frame through, one a minute.
+     */
+    private static final int[] PIXEL_SHIFTS = {
+            0, 0,  1, 0,  1, 1,  0, 1,  -1, 1,  -1, 0,  -1, -1,  0, -1,  1, -1
+    };
+
+    /* live engines, so that memory pressure can be passed on to them */
+    private final List<Engine> mEngines = new ArrayList<>();
+
     @Override
     public Engine onCreateEngine() {
-        return new Engine();
+        Engine engine = new Engine(useHardwareAcceleration());
+        mEngines.add(engine);
+        return engine;
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        for (Engine engine : mEngines) {
+            engine.trimMemory(level);
+        }
+    }
+
+    /**
+     * Hardware-accelerated watch face canvases are only available
+     * from Android O onwards, and are opt-in through a resource.
+     */
+    private boolean useHardwareAcceleration() {
+        return Build.VERSION.SDK_INT >= Build.VERSION_CODES.O
+                && getResources().getBoolean(R.bool.hardware_acceleration);
     }
 
     private static class EngineHandler extends Handler {
@@ -73,6 +176,15 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
                     case MSG_UPDATE_TIME:
                         engine.handleUpdateTimeMessage();
                         break;
+                    case MSG_IDLE_WORK:
+                        engine.handleIdleWorkMessage();
+                        break;
+                    case MSG_DIAL_READY:
+                        engine.handleDialReadyMessage((DialWorker.Result)msg.obj);
+                        break;
+                    case MSG_TYPEFACE_READY:
+                        engine.handleTypefaceReadyMessage((Typeface)msg.obj);
+                        break;
                 }
             }
         }
@@ -80,79 +192,79 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
 
     private class Engine extends CanvasWatchFaceService.Engine {
 
-        Engine() {
-            super();
-            // super(true); // when ready to mess with hardware acceleration
+        Engine(boolean hardwareAccelerated) {
+            super(hardwareAccelerated);
+            mHardwareAccelerated = hardwareAccelerated;
         }
 
-        private static final float TICK_OUTER_RADIUS        = 0.97f;
-        private static final float HOUR_TICK_INNER_RADIUS   = 0.89f;
-        private static final float MINUTE_TICK_INNER_RADIUS = 0.92f;
+        private static final float HAND_SHADOW_RADIUS   = 3f;
+        private static final float HAND_SHADOW_OFFSET_X = 0f;
+        private static final float HAND_SHADOW_OFFSET_Y = 3f;
 
-        private static final float HOUR_TICK_STROKE_WIDTH    = 3f;
-        private static final float MINUTE_TICK_STROKE_WIDTH  = 3f;
-        private static final float BATTERY_TICK_STROKE_WIDTH = 3f;
+        /*
+         * Hour, minute and battery hands are drawn at angles rounded so
+         * that their tips move by this many pixels at a time; frames in
+         * between leave them, and the area under them, untouched.
+         */
+        private static final float SLOW_HAND_PIXEL_STEP = 0.5f;
 
-        private static final float TEXT_OUTER_RADIUS = 0.84f;
+        /*
+         * In ambient mode, where every change costs a wakeup, the target
+         * is one redraw a minute, on the system's time tick, and no alarm
+         * of our own for the hands: they show whole minutes there, so
+         * they only ever move when that tick comes.
+         */
+        private static final long AMBIENT_HAND_STEP_MS = 60000;
 
-        private static final float HOUR_TEXT_SIZE_PERCENT          = 12f;
-        private static final float HOUR24_TEXT_SIZE_PERCENT        = 4.5f;
-        private static final float HOUR24_TEXT_SIZE_OFFSET_PERCENT = 2f;
-        private static final float BATTERY_TEXT_SIZE_PERCENT       = 4.5f;
+        /* see PIXEL_SHIFTS */
+        private static final float PIXEL_SHIFT_STEP = 2f;
 
-        private static final float HAND_SHADOW_RADIUS   = 3f;
-        private static final float HAND_SHADOW_OFFSET_X = 0f;
-        private static final float HAND_SHADOW_OFFSET_Y = 3f;
+        /* indices into FRAME_PHASE_NAMES and SETUP_STEP_NAMES */
+        private static final int PHASE_BACKGROUND      = 0;
+        private static final int PHASE_BATTERY_HAND    = 1;
+        private static final int PHASE_HANDS           = 2;
+        private static final int PHASE_AMBIENT_REFRESH = 3;
+        private static final int PHASE_COMPLICATIONS   = 4;
+        private static final int SETUP_HAND_PATHS          = 0;
+        private static final int SETUP_BACKGROUND          = 1;
+        private static final int SETUP_GRAY_BACKGROUND     = 2;
+
+        private static final int FRAME_TIMINGS_CAPACITY = 256;
 
-        private static final int TICK_NUMBER_SHADOW = 2;
+        /* tapping within this fraction of the radius from the center toggles the timing overlay */
+        private static final float HUD_TAP_RADIUS = 0.15f;
+        private static final float HUD_TEXT_SIZE_PERCENT = 4f;
+        private static final int HUD_LINES = 9;
 
-        private static final float HOUR_HAND_LENGTH    = 0.5f;
-        private static final float MINUTE_HAND_LENGTH  = (TICK_OUTER_RADIUS + MINUTE_TICK_INNER_RADIUS) / 2f;
-        private static final float SECOND_HAND_LENGTH  = TICK_OUTER_RADIUS;
-        private static final float BATTERY_HAND_LENGTH = (1 + HOUR_TICK_INNER_RADIUS) / 2f;
+        /* one second hand atlas position per update at 5 frames per second */
+        private static final int SECOND_HAND_ATLAS_POSITIONS = 300;
 
-        private static final float HOUR_HAND_WIDTH    = 0.04f;
-        private static final float MINUTE_HAND_WIDTH  = 0.04f;
-        private static final float SECOND_HAND_WIDTH  = 0.015f;
-        private static final float BATTERY_HAND_WIDTH = 0.02f;
+        /* hand shadow used instead of a shadow layer on hardware canvases */
+        private static final int HAND_SHADOW_ALPHA = 0x80;
 
         private static final float HOUR_HAND_STROKE_WIDTH    = 2f;
         private static final float MINUTE_HAND_STROKE_WIDTH  = 2f;
         private static final float SECOND_HAND_STROKE_WIDTH  = 2f;
         private static final float BATTERY_HAND_STROKE_WIDTH = 2f;
 
-        /* Handler to update the time five times a second in interactive mode. */
+        /* Handler to update the time in interactive mode, at the rate mFrameRateScheduler chooses. */
         private final Handler mUpdateTimeHandler = new EngineHandler(this);
-        private Calendar mCalendar;
+        private WallClock mWallClock;
+        /* the time mWallClock was last set to */
+        private long mFrameTimeMs;
+
+        /* also told when the clock is set, which may cross an offset change */
         private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                mWallClock.setTimeZone(TimeZone.getDefault());
                 invalidate();
             }
         };
         private boolean mRegisteredTimeZoneReceiver = false;
         private boolean mMuteMode;
 
-        private float mWidth;
-        private float mHeight;
-        private float mRadius;
-        private float mDiameter;
-        private float mCenterX;
-        private float mCenterY;
-
-        private float mBatteryCenterX;
-        private float mBatteryCenterY;
-        private float mBatteryRadius;
-
-        private float mSecondHandLength;
-        private float mSecondHandWidth;
-        private float mMinuteHandLength;
-        private float mMinuteHandWidth;
-        private float mHourHandLength;
-        private float mHourHandWidth;
-        private float mBatteryHandLength;
-        private float mBatteryHandWidth;
+        private final DialGeometry mGeometry = new DialGeometry();
 
         private Paint mHourHandPaint1;
         private Paint mMinuteHandPaint1;
@@ -164,29 +276,149 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
         private Paint mSecondHandPaint2;
         private Paint mBatteryHandPaint2;
 
-        private Paint mHourTickPaint;
-        private Paint mMinuteTickPaint;
-        private Paint mBatteryTickPaint;
+        private Paint mHandShadowPaint;
+
+        /* burn-in protection draws hands as hairline outlines over a black fill */
+        private Paint mHandOutlinePaint;
+
+        /* how far the ambient frame is moved under burn-in protection */
+        private float mPixelShiftX;
+        private float mPixelShiftY;
+
+        /*
+         * Interactive-mode hands, rasterized once with their shadows.
+         * Null until first needed, and after anything that changes how
+         * the hands look: surface size, colors, anti-aliasing, mute mode.
+         */
+        private HandSprite mHourHandSprite;
+        private HandSprite mMinuteHandSprite;
+        private HandSprite mSecondHandSprite;
+        private HandSprite mBatteryHandSprite;
+        private boolean mHandSpritesFailed = false;
+
+        private Paint mHandSpritePaint;
+        private Paint mHandSpriteShadowPaint;
+
+        /*
+         * Optional second hand atlas.  Null when disabled, when it would
+         * not fit in its memory budget, or until first needed.
+         */
+        private SecondHandAtlas mSecondHandAtlas;
+        private boolean mSecondHandAtlasEnabled;
+        private long mSecondHandAtlasBudgetBytes;
+        private boolean mSecondHandAtlasFailed = false;
+
+        /* angles at which hands are drawn in the current frame, in degrees */
+        private float mHourRotation;
+        private float mMinuteRotation;
+        private float mSecondRotation;
+        private float mBatteryRotation;
+        private int mSecondHandAtlasPosition;
+        private boolean mUseSecondHandAtlas;
+
+        private float mHourRotationQuantum;
+        private float mMinuteRotationQuantum;
+        private float mBatteryRotationQuantum;
+
+        /*
+         * Interactive frames are composed from three layers: the static
+         * dial (mBackgroundBitmap), a transparent "slow" layer holding
+         * the battery, hour and minute hands, re-rendered only where
+         * those hands moved, and the second hand drawn live on top.
+         */
+        private Bitmap mSlowLayerBitmap;
+        private final Canvas mSlowLayerCanvas = new Canvas();
+        private boolean mSlowLayerValid = false;
+        private final Rect mSlowLayerDamage = new Rect();
+        private final CacheStats mSlowLayerStats = new CacheStats("slow hand layer");
+
+        /*
+         * Last interactive frame, composed off-screen, so that the next
+         * one only repaints the area where hands moved.  Only used on
+         * software canvases.  Always ARGB_8888, whatever the dial's
+         * config: the hands and complications drawn over it are
+         * antialiased and would band in 16 bits.
+         */
+        private Bitmap mFrameBitmap;
+        private final Canvas mFrameCanvas = new Canvas();
+        private boolean mFrameValid = false;
+        private final Rect mDamage = new Rect();
+
+        private final HandDamage mHourHandDamage    = new HandDamage();
+        private final HandDamage mMinuteHandDamage  = new HandDamage();
+        private final HandDamage mSecondHandDamage  = new HandDamage();
+        private final HandDamage mBatteryHandDamage = new HandDamage();
+
+        private final FrameTimings mFrameTimings =
+                new FrameTimings(FRAME_PHASE_NAMES, SETUP_STEP_NAMES, FRAME_TIMINGS_CAPACITY);
+        /* ambient frames have no frame rate to keep up with, so they are kept apart; setup goes in mFrameTimings */
+        private final FrameTimings mAmbientFrameTimings =
+                new FrameTimings(FRAME_PHASE_NAMES, SETUP_STEP_NAMES, FRAME_TIMINGS_CAPACITY);
+
+        /* frame timing overlay */
+        private boolean mShowHud = false;
+        private Paint mHudTextPaint;
+        private Paint mHudBackgroundPaint;
+        private final TextLine[] mHudLines = new TextLine[HUD_LINES];
+        private final long[] mHudPercentiles = new long[HUD_PERCENTILES.length];
+
+        /*
+         * Lit pixels of each DialPainter.DIAL_* variant, and of the hands
+         * as drawn over it, each measured once when first shown with
+         * the HUD on; a frame is estimated as their sum.
+         */
+        private final PixelStats[] mDialPixelStats = new PixelStats[DialPainter.DIALS];
+        private final PixelStats[] mHandPixelStats = new PixelStats[DialPainter.DIALS];
+        private final PixelStats mFramePixelStats = new PixelStats(0);
 
         private Paint mBackgroundPaint;
         private Paint mGrayBackgroundPaint;
-        private Paint mHourTextPaint;
 
+        /*
+         * Dials are built on the worker thread, by its own painter;
+         * mDialPainter is only for building them synchronously on this
+         * thread, for the golden frame check.
+         */
+        private DialWorker mDialWorker;
+        private DialPainter mDialPainter;
+
+        /* bumped on surface change, so that dials built for the old surface are dropped */
+        private int mDialGeneration = 0;
+        private boolean mDialPending = false;
+        private boolean mGrayDialPending = false;
+        /*
+         * Set when the worker could not build a dial, so that it is not
+         * asked again on every frame; cleared when memory is trimmed or
+         * the surface or ambient variant changes.
+         */
+        private boolean mDialFailed = false;
+        private boolean mGrayDialFailed = false;
+
+        /*
+         * The interactive dial is opaque, so it can do without an alpha
+         * channel.  The ambient dial is drawn in a single color over
+         * black, so it is kept as an ALPHA_8 mask and tinted when drawn.
+         */
         private Bitmap mBackgroundBitmap;
         private Bitmap mGrayBackgroundBitmap;
+        /* which DialPainter ambient variant mGrayBackgroundBitmap is */
+        private int mGrayDial;
+        private Bitmap.Config mDialBitmapConfig;
+
+        private Complications mComplications;
+
+        /* set when memory was trimmed; stops idle building until the next surface change */
+        private boolean mTrimmed = false;
 
         private boolean mAmbient;
         private boolean mLowBitAmbient;
         private boolean mBurnInProtection;
 
-        private Typeface mTypeface;
+        /* rendered hand sprites, and dials built on this thread, kept across process restarts */
+        private BitmapDiskCache mDiskCache;
 
         private int mBackgroundColor;
         private int mShadowColor;
-        private int mTextColor;
-        private int mHourTickColor;
-        private int mMinuteTickColor;
-        private int mBatteryTickColor;
 
         private int mHourHandColor1;
         private int mMinuteHandColor1;
@@ -208,6 +440,13 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
         private Path mSecondHandPath2;
         private Path mBatteryHandPath2;
 
+        /*
+         * Shadow layers on shapes are not supported on hardware canvases
+         * before API 28, so in that mode hand shadows are drawn as offset
+         * copies of the hand bodies instead.
+         */
+        private boolean mHardwareAccelerated;
+
         private boolean demoTimeMode = false;
         private boolean emulatorMode = false;
 
@@ -224,20 +463,12 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
                     .setStatusBarGravity(Gravity.CENTER_VERTICAL | Gravity.CENTER_HORIZONTAL)
                     .build());
 
-            mCalendar = Calendar.getInstance();
+            mWallClock = new WallClock(TimeZone.getDefault());
 
-            mTypeface = Typeface.createFromAsset(
-                    CockpitWatchFace.this.getResources().getAssets(),
-                    "fonts/routed-gothic.ttf"
-            );
+            mDiskCache = new BitmapDiskCache(new File(getCacheDir(), "dial-cache"), TAG);
 
             mBackgroundColor = ContextCompat.getColor(getApplicationContext(), R.color.background_color);
             mShadowColor     = ContextCompat.getColor(getApplicationContext(), R.color.shadow_color);
-            mTextColor       = ContextCompat.getColor(getApplicationContext(), R.color.text_color);
-
-            mHourTickColor    = ContextCompat.getColor(getApplicationContext(), R.color.hour_tick_color);
-            mMinuteTickColor  = ContextCompat.getColor(getApplicationContext(), R.color.minute_tick_color);
-            mBatteryTickColor = ContextCompat.getColor(getApplicationContext(), R.color.battery_tick_color);
 
             mHourHandColor1    = ContextCompat.getColor(getApplicationContext(), R.color.hour_hand_color_1);
             mMinuteHandColor1  = ContextCompat.getColor(getApplicationContext(), R.color.minute_hand_color_1);
@@ -249,14 +480,44 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             mSecondHandColor2  = ContextCompat.getColor(getApplicationContext(), R.color.second_hand_color_2);
             mBatteryHandColor2 = ContextCompat.getColor(getApplicationContext(), R.color.battery_hand_color_2);
 
+            mDialBitmapConfig = getResources().getBoolean(R.bool.rgb565_dial)
+                    ? Bitmap.Config.RGB_565 : Bitmap.Config.ARGB_8888;
+
+            /* the worker thread gets its own disk cache, so that neither thread touches the other's */
+            mDialWorker = new DialWorker(
+                    new DialPainter(getApplicationContext(),
+                            new BitmapDiskCache(new File(getCacheDir(), "dial-cache"), TAG),
+                            mDialBitmapConfig),
+                    mUpdateTimeHandler, MSG_DIAL_READY);
+
+            mSecondHandAtlasEnabled     = getResources().getBoolean(R.bool.second_hand_atlas);
+            mSecondHandAtlasBudgetBytes = getResources().getInteger(R.integer.second_hand_atlas_budget_kb) * 1024L;
+
+            mComplications = new Complications(getApplicationContext(), COMPLICATION_IDS,
+                    getResources().getInteger(R.integer.complication_budget_us) * 1000L);
+            mDialWorker.requestTypeface(MSG_TYPEFACE_READY);
+            setDefaultSystemComplicationProvider(TOP_COMPLICATION_ID, SystemProviders.DATE,
+                    ComplicationData.TYPE_SHORT_TEXT);
+            setActiveComplications(COMPLICATION_IDS);
+
             mBackgroundPaint = new Paint();
             mBackgroundPaint.setColor(mBackgroundColor);
 
             mGrayBackgroundPaint = new Paint();
-            mGrayBackgroundPaint.setColor(Color.BLACK);
+            mGrayBackgroundPaint.setColor(Color.WHITE);
 
             initializePaintStyles();
 
+            mHudTextPaint = new Paint();
+            mHudTextPaint.setAntiAlias(true);
+            mHudTextPaint.setColor(Color.WHITE);
+            mHudTextPaint.setTextAlign(Paint.Align.CENTER);
+            mHudBackgroundPaint = new Paint();
+            mHudBackgroundPaint.setColor(0xc0000000);
+            for (int i = 0; i < HUD_LINES; i += 1) {
+                mHudLines[i] = new TextLine(48);
+            }
+
             mAmbientRefresher = new AmbientRefresher(CockpitWatchFace.this, new Runnable() {
                 @Override
                 public void run() {
@@ -266,11 +527,29 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
 
             mScreenTimeExtender = new ScreenTimeExtender(CockpitWatchFace.this);
             mScreenTimeExtender.clearIdle();
+
+            mFrameRateScheduler = new FrameRateScheduler(getResources().getInteger(R.integer.interactive_frame_rate));
+
+            mBatteryLevelMonitor = new BatteryLevelMonitor(CockpitWatchFace.this, new Runnable() {
+                @Override
+                public void run() {
+                    mFrameRateScheduler.setBatteryPercentage(mBatteryLevelMonitor.getPercentage());
+                    invalidate();
+                }
+            });
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mUpdateTimeHandler.removeMessages(MSG_IDLE_WORK);
+            mUpdateTimeHandler.removeMessages(MSG_DIAL_READY);
+            mUpdateTimeHandler.removeMessages(MSG_TYPEFACE_READY);
+            mDialWorker.quit();
+            mComplications.recycle();
+            mScreenTimeExtender.release();
+            mBatteryLevelMonitor.stop();
+            mEngines.remove(this);
             super.onDestroy();
         }
 
@@ -280,12 +559,22 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
 
             if (visible) {
                 registerReceiver();
+                mBatteryLevelMonitor.start();
 
                 // Update time zone in case it changed while we weren't visible.
-                mCalendar.setTimeZone(TimeZone.getDefault());
+                mWallClock.setTimeZone(TimeZone.getDefault());
                 invalidate();
             } else {
                 unregisterReceiver();
+                mBatteryLevelMonitor.stop();
+                mScreenTimeExtender.release();
+                Log.d(TAG, mScreenTimeExtender.toString());
+                Log.d(TAG, mDiskCache.getStats().toString());
+                Log.d(TAG, mSlowLayerStats.toString());
+                Log.d(TAG, mComplications.toString());
+                mFrameTimings.dump(TAG);
+                mAmbientFrameTimings.dump(TAG, "AmbientFrameTimings");
+                dumpPixelStats();
             }
 
             /* Check and trigger whether or not timer should be running (only in active mode). */
@@ -299,6 +588,8 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
             mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            /* the ambient variant may have changed */
+            mGrayDialFailed = false;
         }
 
         @Override
@@ -315,6 +606,7 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             changePaintColorsAndShadows();
 
             if (mAmbient) {
+                mScreenTimeExtender.release();
                 mAmbientRefresher.start();
             } else {
                 mAmbientRefresher.stop();
@@ -329,59 +621,96 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             super.onInterruptionFilterChanged(interruptionFilter);
             boolean inMuteMode = (interruptionFilter == WatchFaceService.INTERRUPTION_FILTER_NONE);
 
-            /* Dim display in mute mode. */
             if (mMuteMode != inMuteMode) {
-                mMuteMode = inMuteMode;
-                mHourHandPaint1.setAlpha(inMuteMode ? 100 : 255);
-                mMinuteHandPaint1.setAlpha(inMuteMode ? 100 : 255);
-                mSecondHandPaint1.setAlpha(inMuteMode ? 80 : 255);
-                mBatteryHandPaint1.setAlpha(inMuteMode ? 100 : 255);
+                setMuteMode(inMuteMode);
                 invalidate();
             }
         }
 
+        /**
+         * Dims the hands in mute mode.
+         */
+        private void setMuteMode(boolean inMuteMode) {
+            mMuteMode = inMuteMode;
+            mHourHandPaint1.setAlpha(inMuteMode ? 100 : 255);
+            mMinuteHandPaint1.setAlpha(inMuteMode ? 100 : 255);
+            mSecondHandPaint1.setAlpha(inMuteMode ? 80 : 255);
+            mBatteryHandPaint1.setAlpha(inMuteMode ? 100 : 255);
+            mHandShadowPaint.setAlpha(inMuteMode ? HAND_SHADOW_ALPHA * 100 / 255 : HAND_SHADOW_ALPHA);
+            clearPixelStats(mHandPixelStats);
+            invalidateHandSprites();
+            invalidateFrame();
+        }
+
         @Override
         public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
             super.onSurfaceChanged(holder, format, width, height);
+            initSurface(width, height);
+        }
 
-            /*
-             * Find the coordinates of the center point on the screen, and ignore the window
-             * insets, so that, on round watches with a "chin", the watch face is centered on the
-             * entire screen, not just the usable portion.
-             */
-            mWidth    = width;
-            mHeight   = height;
-            mRadius   = Math.min(width / 2f, height / 2f);
-            mDiameter = Math.min(width, height);
-            mCenterX  = width / 2f;
-            mCenterY  = height / 2f;
-
-            mBatteryCenterX    = width / 2f;
-            mBatteryCenterY    = height * 0.72f;
-            mBatteryRadius     = height * 0.16f;
-
-            mHourHandLength    = mRadius * HOUR_HAND_LENGTH;
-            mMinuteHandLength  = mRadius * MINUTE_HAND_LENGTH;
-            mSecondHandLength  = mRadius * SECOND_HAND_LENGTH;
-            mBatteryHandLength = mBatteryRadius * BATTERY_HAND_LENGTH;
-
-            mHourHandWidth    = mDiameter * HOUR_HAND_WIDTH;
-            mMinuteHandWidth  = mDiameter * MINUTE_HAND_WIDTH;
-            mSecondHandWidth  = mDiameter * SECOND_HAND_WIDTH;
-            mBatteryHandWidth = mDiameter * BATTERY_HAND_WIDTH;
+        /**
+         * Rebuilds everything that depends on the surface size.
+         */
+        private void initSurface(int width, int height) {
+            updateGeometry(width, height);
 
             mBackgroundBitmap     = null;
             mGrayBackgroundBitmap = null;
-
+            mFrameBitmap          = null;
+            mSlowLayerBitmap      = null;
+            mDialGeneration += 1;
+            mDialPending     = false;
+            mGrayDialPending = false;
+            mDialFailed      = false;
+            mGrayDialFailed  = false;
+            clearPixelStats(mDialPixelStats);
+            clearPixelStats(mHandPixelStats);
+            invalidateHandSprites();
+            invalidateSecondHandAtlas();
+            invalidateFrame();
+
+            mTrimmed = false;
+
+            long startNanos = System.nanoTime();
             initHandPaths();
-            initBackgroundBitmap(width, height);
-            initGrayBackgroundBitmap(width, height);
+            mFrameTimings.recordSetup(SETUP_HAND_PATHS, System.nanoTime() - startNanos);
+
+            /* dials are requested when first drawn, or once the first frame is up; see handleIdleWorkMessage() */
 
             if (!mAmbient) {
                 mScreenTimeExtender.clearIdle();
             }
         }
 
+        /**
+         * Computes the size and position of every dial element and hand
+         * for a surface of the given size.
+         */
+        private void updateGeometry(int width, int height) {
+            mGeometry.update(width, height);
+
+            mHourRotationQuantum    = HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.hourHandLength);
+            mMinuteRotationQuantum  = HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.minuteHandLength);
+            mBatteryRotationQuantum = HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.batteryHandLength);
+
+            mHudTextPaint.setTextSize(mGeometry.diameter * HUD_TEXT_SIZE_PERCENT / 100);
+
+            mComplications.setBounds(TOP_COMPLICATION_ID, mGeometry.complicationCenterX,
+                    mGeometry.complicationCenterY, mGeometry.complicationRadius);
+        }
+
+        /**
+         * Takes new data for a complication slot.  It is not rendered
+         * here but on a coming frame, within that frame's budget.
+         */
+        @Override
+        public void onComplicationDataUpdate(int complicationId, ComplicationData complicationData) {
+            super.onComplicationDataUpdate(complicationId, complicationData);
+            mComplications.setContent(complicationId,
+                    ComplicationDataContent.from(getApplicationContext(), complicationData));
+            invalidate();
+        }
+
         /**
          * Captures tap event (and tap type). The {@link WatchFaceService#TAP_TYPE_TAP} case can be
          * used for implementing specific logic to handle the gesture.
@@ -390,12 +719,27 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
         public void onTapCommand(int tapType, int x, int y, long eventTime) {
             switch (tapType) {
                 case TAP_TYPE_TAP:
-                    if (emulatorMode) {
+                    float dx = x - mGeometry.centerX;
+                    float dy = y - mGeometry.centerY;
+                    float hudRadius = mGeometry.radius * HUD_TAP_RADIUS;
+                    if (!mAmbient && dx * dx + dy * dy < hudRadius * hudRadius) {
+                        mShowHud = !mShowHud;
+                        if (mShowHud) {
+                            mFrameTimings.reset();
+                        } else {
+                            mFrameTimings.dump(TAG);
+                            dumpPixelStats();
+                        }
+                    } else if (mComplications.onTap(x, y)) {
+                        /* its tap action has been launched */
+                    } else if (emulatorMode) {
                         float xx = (float)x;
                         float yy = (float)y;
-                        if (xx < mWidth / 2 && yy < mHeight / 2) {
+                        if (xx < mGeometry.width / 2 && yy < mGeometry.height / 2) {
                             demoTimeMode = true;
-                        } else if (xx >= mWidth / 2 && yy >= mHeight / 2) {
+                        } else if (xx < mGeometry.width / 2 && yy >= mGeometry.height / 2 && !mAmbient) {
+                            runGoldenFrameCheck();
+                        } else if (xx >= mGeometry.width / 2 && yy >= mGeometry.height / 2) {
                             demoTimeMode = false;
                         }
                         invalidate();
@@ -410,25 +754,346 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
 
         // MULTI-TAP WOULD GO HERE
 
+        /**
+         * Renders the demo time at every size in {@link #GOLDEN_FRAME_SIZES}
+         * and in every mode in {@link #GOLDEN_FRAME_MODES}, at
+         * {@link #GOLDEN_FRAME_RATE}, through the same code as real
+         * frames, and checks each frame against the checksums in
+         * {@link #GOLDEN_FRAMES_ASSET}; see {@link GoldenFrames}.
+         * Only reachable in the emulator.
+         *
+         * @throws IllegalStateException if a frame differs or has no
+         *         expected checksum, once the face is put back the way it
+         *         was.
+         */
+        private void runGoldenFrameCheck() {
+            int width  = (int)mGeometry.width;
+            int height = (int)mGeometry.height;
+            boolean ambient  = mAmbient;
+            boolean lowBit   = mLowBitAmbient;
+            boolean burnIn   = mBurnInProtection;
+            boolean muteMode = mMuteMode;
+            boolean demoTime = demoTimeMode;
+            ComplicationContent complication = mComplications.getContent(TOP_COMPLICATION_ID);
+            long complicationBudgetNanos = mComplications.getBudgetNanos();
+            FrameRateScheduler frameRateScheduler = mFrameRateScheduler;
+
+            InputStream expected = null;
+            try {
+                expected = getAssets().open(GOLDEN_FRAMES_ASSET);
+            } catch (IOException e) {
+                Log.e(TAG, "cannot open " + GOLDEN_FRAMES_ASSET + ": " + e.getLocalizedMessage());
+            }
+            GoldenFrames goldenFrames = new GoldenFrames(expected, new File(getFilesDir(), GOLDEN_FRAMES_FILE), TAG);
+            StringBuilder failed = new StringBuilder();
+            Canvas canvas = new Canvas();
+            demoTimeMode = true;
+            mComplications.setContent(TOP_COMPLICATION_ID, GOLDEN_COMPLICATION);
+            /* every frame shows its complication up to date, however long that takes */
+            mComplications.setBudgetNanos(Long.MAX_VALUE);
+            /* neither the battery level nor recent frame times may change the rate under the check */
+            mFrameRateScheduler = new FrameRateScheduler(GOLDEN_FRAME_RATE);
+            for (int size : GOLDEN_FRAME_SIZES) {
+                initSurface(size, size);
+                Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+                canvas.setBitmap(bitmap);
+                for (int mode : GOLDEN_FRAME_MODES) {
+                    mAmbient          = (mode & GOLDEN_AMBIENT) != 0;
+                    mLowBitAmbient    = (mode & GOLDEN_LOW_BIT) != 0;
+                    mBurnInProtection = (mode & GOLDEN_BURN_IN) != 0;
+                    changePaintColorsAndShadows();
+                    setMuteMode((mode & GOLDEN_MUTE) != 0);
+                    buildDialNow();
+
+                    bitmap.eraseColor(Color.TRANSPARENT);
+                    long startNanos = System.nanoTime();
+                    drawFrame(canvas);
+                    long renderNanos = System.nanoTime() - startNanos;
+
+                    /* rasterization differs between platform releases */
+                    String key = size + " " + goldenFrameModeName(mode)
+                            + (mHardwareAccelerated ? " hw" : " sw") + " api" + Build.VERSION.SDK_INT;
+                    if (!goldenFrames.check(key, bitmap, renderNanos)) {
+                        failed.append(failed.length() == 0 ? "" : ", ").append(key);
+                    }
+                }
+                canvas.setBitmap(null);
+                bitmap.recycle();
+            }
+            boolean passed = goldenFrames.finish();
+
+            /* put everything back the way it was for the real surface */
+            mAmbient          = ambient;
+            mLowBitAmbient    = lowBit;
+            mBurnInProtection = burnIn;
+            demoTimeMode      = demoTime;
+            mFrameRateScheduler = frameRateScheduler;
+            mComplications.setContent(TOP_COMPLICATION_ID, complication);
+            mComplications.setBudgetNanos(complicationBudgetNanos);
+            changePaintColorsAndShadows();
+            setMuteMode(muteMode);
+            initSurface(width, height);
+
+            if (!passed) {
+                throw new IllegalStateException("golden frames differ from " + GOLDEN_FRAMES_ASSET + ": " + failed);
+            }
+        }
+
+        private String goldenFrameModeName(int mode) {
+            String name = (mode & GOLDEN_AMBIENT) != 0 ? "ambient" : "interactive";
+            if ((mode & GOLDEN_LOW_BIT) != 0) {
+                name += "+lowbit";
+            }
+            if ((mode & GOLDEN_BURN_IN) != 0) {
+                name += "+burnin";
+            }
+            if ((mode & GOLDEN_MUTE) != 0) {
+                name += "+mute";
+            }
+            return name;
+        }
+
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
+            if (canvas.isHardwareAccelerated() != mHardwareAccelerated) {
+                /* the platform did not give us the kind of canvas we asked for */
+                mHardwareAccelerated = canvas.isHardwareAccelerated();
+                changePaintColorsAndShadows();
+            }
+
+            FrameTimings timings = frameTimings();
+            timings.beginFrame();
+            long startNanos = System.nanoTime();
             long now = System.currentTimeMillis();
-            mCalendar.setTimeInMillis(now);
+            mWallClock.setTimeInMillis(now);
+            mFrameTimeMs = now;
 
-            drawBackground(canvas);
-            drawBatteryHand(canvas);
-            drawWatchFace(canvas);
-            if (!mAmbient) {
+            drawFrame(canvas);
+            scheduleIdleWork();
+            if (mShowHud) {
+                measurePixelStats();
+            }
+
+            if (mAmbient) {
+                long refreshNanos = System.nanoTime();
+                mAmbientRefresher.scheduleAt(nextAmbientFrameChange(now));
+                timings.addPhase(PHASE_AMBIENT_REFRESH, System.nanoTime() - refreshNanos);
+                timings.endFrame(0);
+            } else {
+                mFrameRateScheduler.onFrameRendered(System.nanoTime() - startNanos);
+                timings.endFrame(1000000000L / mFrameRateScheduler.getRate());
+                if (mShowHud) {
+                    drawHud(canvas);
+                }
                 mScreenTimeExtender.checkIdle();
             }
         }
 
+        /**
+         * Returns where the current frame's phases go: ambient frames
+         * are not held to the interactive frame rate, and are not mixed
+         * in with the frames the timing overlay shows.
+         */
+        private FrameTimings frameTimings() {
+            return mAmbient ? mAmbientFrameTimings : mFrameTimings;
+        }
+
+        /**
+         * Draws the watch face for the current mode, at the time in
+         * {@link #mWallClock}.
+         */
+        private void drawFrame(Canvas canvas) {
+            if (!mAmbient) {
+                initHandSprites();
+            }
+
+            updateHandRotations();
+
+            if (mAmbient && mBurnInProtection) {
+                /* the cached dial is blitted at an offset, not drawn again */
+                canvas.save();
+                canvas.translate(mPixelShiftX, mPixelShiftY);
+                drawBackground(canvas);
+                drawComplications(canvas);
+                drawBatteryHand(canvas);
+                drawWatchFace(canvas);
+                canvas.restore();
+            } else if (mAmbient) {
+                drawBackground(canvas);
+                drawComplications(canvas);
+                drawBatteryHand(canvas);
+                drawWatchFace(canvas);
+            } else {
+                updateSlowLayer();
+                if (mHardwareAccelerated) {
+                    drawLayers(canvas);
+                } else {
+                    drawDamagedFrame(canvas);
+                }
+            }
+        }
+
+        /**
+         * Returns when the next ambient frame would differ from the one
+         * just drawn: at the next whole minute, when the hour and minute
+         * hands move.  A complication's time-dependent text is rounded
+         * up to whole minutes too, rather than costing a wakeup of its
+         * own; since it changes after this frame, that is never before
+         * the next minute, whose frame renders it.  Battery level changes
+         * and new complication data are left out, since those redraw the
+         * face themselves.
+         */
+        private long nextAmbientFrameChange(long timeMs) {
+            if (demoTimeMode) {
+                return Long.MAX_VALUE;
+            }
+            long msIntoMinute = mWallClock.getSecond() * 1000L + mWallClock.getMillisecond();
+            return timeMs - msIntoMinute + AMBIENT_HAND_STEP_MS;
+        }
+
+        /**
+         * Draws the frame timing overlay: frame rate, missed deadlines,
+         * and p50/p95/p99 times for each phase, in milliseconds.
+         */
+        private void drawHud(Canvas canvas) {
+            FrameTimings timings = mFrameTimings;
+            int line = 0;
+            mHudLines[line++].clear()
+                    .append(mFrameRateScheduler.getRate()).append(" fps, missed ")
+                    .append(timings.getMissedDeadlines()).append('/').append(timings.getFrameCount());
+            mHudLines[line++].clear().append("ms: p50 p95 p99");
+            for (int phase = 0; phase <= timings.getPhaseCount(); phase += 1) {
+                if (phase == PHASE_AMBIENT_REFRESH) {
+                    continue;
+                }
+                timings.getPercentiles(phase, HUD_PERCENTILES, mHudPercentiles);
+                TextLine hudLine = mHudLines[line++].clear().append(timings.getPhaseName(phase));
+                for (int i = 0; i < mHudPercentiles.length; i += 1) {
+                    hudLine.append(' ').append(mHudPercentiles[i], 1000000L, 2);
+                }
+            }
+            mHudLines[line++].clear().append("setup: ")
+                    .append(timings.getSetupNanos(SETUP_HAND_PATHS), 1000000L, 1).append(' ')
+                    .append(timings.getSetupNanos(SETUP_BACKGROUND), 1000000L, 1).append(' ')
+                    .append(timings.getSetupNanos(SETUP_GRAY_BACKGROUND), 1000000L, 1);
+            PixelStats pixels = framePixelStats(currentDial());
+            if (pixels != null) {
+                mHudLines[line++].clear().append("lit ")
+                        .append(Math.round(pixels.getLitFraction() * 1000f), 10L, 1).append("% power ")
+                        .append(Math.round(pixels.getAverageLevel() * 1000f), 10L, 1).append('%');
+            }
+
+            float lineHeight = mHudTextPaint.getTextSize() * 1.2f;
+            float top = mGeometry.centerY - mGeometry.radius * 0.6f;
+            float halfWidth = mGeometry.radius * 0.7f;
+            canvas.drawRect(mGeometry.centerX - halfWidth, top - lineHeight,
+                    mGeometry.centerX + halfWidth, top + lineHeight * (line - 0.5f), mHudBackgroundPaint);
+            for (int i = 0; i < line; i += 1) {
+                canvas.drawText(mHudLines[i].getChars(), 0, mHudLines[i].length(),
+                        mGeometry.centerX, top + lineHeight * i, mHudTextPaint);
+            }
+        }
+
+        /**
+         * Returns the DialPainter.DIAL_* variant the current mode shows.
+         */
+        private int currentDial() {
+            return mAmbient ? ambientDial() : DialPainter.DIAL_INTERACTIVE;
+        }
+
+        /**
+         * Measures whatever the current frame's power estimate is still
+         * missing: the hands, and the dial if the worker was not asked
+         * to measure it.  Only done while the HUD shows, as each is a
+         * pass over a whole bitmap.
+         */
+        private void measurePixelStats() {
+            int dial = currentDial();
+            if (mDialPixelStats[dial] == null) {
+                Bitmap bitmap = mAmbient ? mGrayBackgroundBitmap : mBackgroundBitmap;
+                if (bitmap != null && (!mAmbient || mGrayDial == dial)) {
+                    mDialPixelStats[dial] = PixelStats.measure(bitmap, Color.WHITE);
+                }
+            }
+            if (mHandPixelStats[dial] == null) {
+                mHandPixelStats[dial] = measureHands();
+            }
+        }
+
+        /**
+         * Draws the hands as they are now, over a transparent bitmap the
+         * size of the surface, and measures them; null if there is no
+         * memory for the bitmap.
+         */
+        private PixelStats measureHands() {
+            Bitmap bitmap;
+            try {
+                bitmap = Bitmap.createBitmap((int)mGeometry.width, (int)mGeometry.height, Bitmap.Config.ARGB_8888);
+            } catch (OutOfMemoryError e) {
+                Log.e(TAG, "cannot allocate bitmap to measure hands: " + e.getLocalizedMessage());
+                return null;
+            }
+            Canvas canvas = new Canvas(bitmap);
+            drawHand(canvas, mBatteryRotation, mGeometry.batteryCenterX, mGeometry.batteryCenterY, mBatteryHandSprite,
+                    mBatteryHandPath1, mBatteryHandPaint1, mBatteryHandPath2, mBatteryHandPaint2);
+            drawHand(canvas, mHourRotation, mGeometry.centerX, mGeometry.centerY, mHourHandSprite,
+                    mHourHandPath1, mHourHandPaint1, mHourHandPath2, mHourHandPaint2);
+            drawHand(canvas, mMinuteRotation, mGeometry.centerX, mGeometry.centerY, mMinuteHandSprite,
+                    mMinuteHandPath1, mMinuteHandPaint1, mMinuteHandPath2, mMinuteHandPaint2);
+            if (!mAmbient) {
+                drawHand(canvas, mSecondRotation, mGeometry.centerX, mGeometry.centerY, mSecondHandSprite,
+                        mSecondHandPath1, mSecondHandPaint1, mSecondHandPath2, mSecondHandPaint2);
+            }
+            PixelStats stats = PixelStats.measure(bitmap, Color.WHITE);
+            bitmap.recycle();
+            return stats;
+        }
+
+        /**
+         * Returns the estimated lit pixels of a frame showing a dial
+         * variant, or null until both the dial and the hands have been
+         * measured.  The result is only valid until the next call.
+         */
+        private PixelStats framePixelStats(int dial) {
+            if (mDialPixelStats[dial] == null || mHandPixelStats[dial] == null) {
+                return null;
+            }
+            mFramePixelStats.set(mDialPixelStats[dial]);
+            mFramePixelStats.add(mHandPixelStats[dial]);
+            return mFramePixelStats;
+        }
+
+        private void clearPixelStats(PixelStats[] stats) {
+            for (int dial = 0; dial < stats.length; dial += 1) {
+                stats[dial] = null;
+            }
+        }
+
+        /**
+         * Logs the lit pixel and power estimate of every dial variant
+         * measured so far, alone and with the hands; only those shown
+         * while the HUD was on are measured.
+         */
+        private void dumpPixelStats() {
+            for (int dial = 0; dial < DialPainter.DIALS; dial += 1) {
+                if (mDialPixelStats[dial] == null) {
+                    continue;
+                }
+                Log.d(TAG, DialPainter.dialName(dial) + ": " + mDialPixelStats[dial]);
+                PixelStats frame = framePixelStats(dial);
+                if (frame != null) {
+                    Log.d(TAG, DialPainter.dialName(dial) + " with hands: " + frame);
+                }
+            }
+        }
+
         private void registerReceiver() {
             if (mRegisteredTimeZoneReceiver) {
                 return;
             }
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
             CockpitWatchFace.this.registerReceiver(mTimeZoneReceiver, filter);
         }
 
@@ -465,12 +1130,82 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             invalidate();
             if (shouldTimerBeRunning()) {
                 long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
+                long delayMs = mFrameRateScheduler.getDelayMs(timeMs);
                 mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
             }
         }
 
+        /**
+         * Queues {@link #handleIdleWorkMessage()} behind the frame being
+         * drawn, if anything is left to build.
+         */
+        private void scheduleIdleWork() {
+            if (hasIdleWork() && !mUpdateTimeHandler.hasMessages(MSG_IDLE_WORK)) {
+                mUpdateTimeHandler.sendEmptyMessage(MSG_IDLE_WORK);
+            }
+        }
+
+        private boolean hasIdleWork() {
+            if (mTrimmed) {
+                /* only build what is drawn until the next surface change */
+                return false;
+            }
+            return canRequestDial(false) || canRequestDial(true)
+                    || (!mAmbient && mSecondHandAtlasEnabled && mSecondHandAtlas == null && !mSecondHandAtlasFailed);
+        }
+
+        /**
+         * Requests the dials the current frame did not need from the
+         * worker thread, or builds the second hand atlas, which takes
+         * the current hand paints.  One at a time, so that frames due
+         * in between are not held up for long.
+         */
+        private void handleIdleWorkMessage() {
+            if (!hasIdleWork()) {
+                return;
+            }
+            if (canRequestDial(true)) {
+                requestDial(true);
+            } else if (canRequestDial(false)) {
+                requestDial(false);
+            } else if (!mAmbient) {
+                initSecondHandAtlas();
+            }
+            scheduleIdleWork();
+        }
+
+        /**
+         * Releases what the current mode does not draw, when the system
+         * is short of memory.  Released assets are built again when
+         * next drawn.
+         */
+        private void trimMemory(int level) {
+            if (level < TRIM_MEMORY_RUNNING_LOW) {
+                return;
+            }
+            mTrimmed = true;
+            mUpdateTimeHandler.removeMessages(MSG_IDLE_WORK);
+            /* whatever failed for lack of memory may fit now */
+            mDialFailed     = false;
+            mGrayDialFailed = false;
+            if (mAmbient) {
+                mBackgroundBitmap = null;
+                mFrameBitmap      = null;
+                mSlowLayerBitmap  = null;
+                invalidateHandSprites();
+                invalidateSecondHandAtlas();
+                invalidateFrame();
+            } else {
+                mGrayBackgroundBitmap = null;
+                if (level >= TRIM_MEMORY_RUNNING_CRITICAL) {
+                    invalidateSecondHandAtlas();
+                    mSecondHandAtlasFailed = true;
+                }
+            }
+            Log.i(TAG, "memory trimmed at level " + level + (mAmbient ? "; keeping ambient assets only"
+                    : "; keeping interactive assets only"));
+        }
+
         // @@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@@
 
         private void initializePaintStyles() {
@@ -522,30 +1257,29 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             mBatteryHandPaint2.setStrokeJoin(Paint.Join.ROUND);
             mBatteryHandPaint2.setStyle(Paint.Style.FILL_AND_STROKE);
 
-            changePaintColorsAndShadowsForDefault();
+            mHandShadowPaint = new Paint();
+            mHandShadowPaint.setStrokeWidth(HAND_SHADOW_RADIUS);
+            mHandShadowPaint.setStrokeCap(Paint.Cap.ROUND);
+            mHandShadowPaint.setStrokeJoin(Paint.Join.ROUND);
+            mHandShadowPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+            mHandShadowPaint.setColor(mShadowColor);
+            mHandShadowPaint.setAlpha(HAND_SHADOW_ALPHA);
+
+            mHandOutlinePaint = new Paint();
+            mHandOutlinePaint.setColor(Color.WHITE);
+            mHandOutlinePaint.setStrokeWidth(0f);
+            mHandOutlinePaint.setStyle(Paint.Style.STROKE);
+
+            mHandSpritePaint = new Paint();
+            mHandSpritePaint.setAntiAlias(true);
+            mHandSpritePaint.setFilterBitmap(true);
+
+            mHandSpriteShadowPaint = new Paint();
+            mHandSpriteShadowPaint.setAntiAlias(true);
+            mHandSpriteShadowPaint.setFilterBitmap(true);
+            mHandSpriteShadowPaint.setColor(mShadowColor);
 
-            mHourTickPaint = new Paint();
-            mHourTickPaint.setColor(mHourTickColor);
-            mHourTickPaint.setStrokeWidth(HOUR_TICK_STROKE_WIDTH);
-            mHourTickPaint.setStyle(Paint.Style.STROKE);
-            mHourTickPaint.setStrokeCap(Paint.Cap.BUTT);
-
-            mMinuteTickPaint = new Paint();
-            mMinuteTickPaint.setColor(mMinuteTickColor);
-            mMinuteTickPaint.setStrokeWidth(MINUTE_TICK_STROKE_WIDTH);
-            mMinuteTickPaint.setStyle(Paint.Style.STROKE);
-            mMinuteTickPaint.setStrokeCap(Paint.Cap.BUTT);
-
-            mBatteryTickPaint = new Paint();
-            mBatteryTickPaint.setColor(mBatteryTickColor);
-            mBatteryTickPaint.setStrokeWidth(BATTERY_TICK_STROKE_WIDTH);
-            mBatteryTickPaint.setStyle(Paint.Style.STROKE);
-            mBatteryTickPaint.setStrokeCap(Paint.Cap.BUTT);
-
-            mHourTextPaint = new Paint();
-            mHourTextPaint.setColor(mTextColor);
-            mHourTextPaint.setTypeface(mTypeface);
-            mHourTextPaint.setTextAlign(Paint.Align.CENTER);
+            changePaintColorsAndShadowsForDefault();
 
             changePaintAntiAliasForDefault();
         }
@@ -559,6 +1293,13 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             mMinuteHandPaint2.setColor(mMinuteHandColor2);
             mSecondHandPaint2.setColor(mSecondHandColor2);
             mBatteryHandPaint2.setColor(mBatteryHandColor2);
+            if (mHardwareAccelerated) {
+                mHourHandPaint1.clearShadowLayer();
+                mMinuteHandPaint1.clearShadowLayer();
+                mSecondHandPaint1.clearShadowLayer();
+                mBatteryHandPaint1.clearShadowLayer();
+                return;
+            }
             mHourHandPaint1.setShadowLayer(HAND_SHADOW_RADIUS, HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y, mShadowColor);
             mMinuteHandPaint1.setShadowLayer(HAND_SHADOW_RADIUS, HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y, mShadowColor);
             mSecondHandPaint1.setShadowLayer(HAND_SHADOW_RADIUS, HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y, mShadowColor);
@@ -589,10 +1330,6 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             mMinuteHandPaint2.setAntiAlias(true);
             mSecondHandPaint2.setAntiAlias(true);
             mBatteryHandPaint2.setAntiAlias(true);
-            mHourTickPaint.setAntiAlias(true);
-            mMinuteTickPaint.setAntiAlias(true);
-            mBatteryTickPaint.setAntiAlias(true);
-            mHourTextPaint.setAntiAlias(true);
         }
 
         private void changePaintAntiAliasForLowBit() {
@@ -604,13 +1341,11 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
             mMinuteHandPaint2.setAntiAlias(false);
             mSecondHandPaint2.setAntiAlias(false);
             mBatteryHandPaint2.setAntiAlias(false);
-            mHourTickPaint.setAntiAlias(false);
-            mMinuteTickPaint.setAntiAlias(false);
-            mBatteryTickPaint.setAntiAlias(false);
-            mHourTextPaint.setAntiAlias(false);
         }
 
         private void changePaintColorsAndShadows() {
+            invalidateHandSprites();
+            invalidateFrame();
             if (mAmbient) {
                 changePaintColorsAndShadowsForAmbient();
             } else {
@@ -624,348 +1359,454 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
         }
 
         private void initHandPaths() {
+            mHourHandPath1    = handPath(mGeometry.hourHand);
+            mMinuteHandPath1  = handPath(mGeometry.minuteHand);
+            mSecondHandPath1  = handPath(mGeometry.secondHand);
+            mBatteryHandPath1 = handPath(mGeometry.batteryHand);
+
+            mHourHandPath2    = highlightPath(mGeometry.hourHand, mHourHandPath1);
+            mMinuteHandPath2  = highlightPath(mGeometry.minuteHand, mMinuteHandPath1);
+            mSecondHandPath2  = highlightPath(mGeometry.secondHand, mSecondHandPath1);
+            mBatteryHandPath2 = highlightPath(mGeometry.batteryHand, mBatteryHandPath1);
+
+            float damageMargin = 2f * HAND_SHADOW_RADIUS + 2f
+                    + Math.max(Math.abs(HAND_SHADOW_OFFSET_X), Math.abs(HAND_SHADOW_OFFSET_Y));
+            mHourHandDamage.setBounds(mHourHandPath1, damageMargin + HOUR_HAND_STROKE_WIDTH);
+            mMinuteHandDamage.setBounds(mMinuteHandPath1, damageMargin + MINUTE_HAND_STROKE_WIDTH);
+            mSecondHandDamage.setBounds(mSecondHandPath1, damageMargin + SECOND_HAND_STROKE_WIDTH);
+            mBatteryHandDamage.setBounds(mBatteryHandPath1, damageMargin + BATTERY_HAND_STROKE_WIDTH);
+        }
 
-            /*
-             * Base Paths
-             */
-
-            /* hour hand */
-
-            mHourHandPath1 = new Path();
-            mHourHandPath1.moveTo(mCenterX - mHourHandWidth / 3, mCenterY);
-            mHourHandPath1.lineTo(mCenterX - mHourHandWidth / 2, mCenterY - mHourHandLength * 0.75f);
-            mHourHandPath1.lineTo(mCenterX, mCenterY - mHourHandLength);
-            mHourHandPath1.lineTo(mCenterX + mHourHandWidth / 2, mCenterY - mHourHandLength * 0.75f);
-            mHourHandPath1.lineTo(mCenterX + mHourHandWidth / 3, mCenterY);
-            mHourHandPath1.close();
-
-            Path hourCirclePath = new Path();
-            hourCirclePath.addCircle(mCenterX, mCenterY, mHourHandWidth / 1.5f, Path.Direction.CW);
-
-            mHourHandPath1.op(hourCirclePath, Path.Op.UNION);
-
-            /* minute hand */
-
-            mMinuteHandPath1 = new Path();
-            mMinuteHandPath1.moveTo(mCenterX - mMinuteHandWidth / 3, mCenterY);
-            mMinuteHandPath1.lineTo(mCenterX - mMinuteHandWidth / 2, mCenterY - mMinuteHandLength * 0.75f);
-            mMinuteHandPath1.lineTo(mCenterX, mCenterY - mMinuteHandLength);
-            mMinuteHandPath1.lineTo(mCenterX + mMinuteHandWidth / 2, mCenterY - mMinuteHandLength * 0.75f);
-            mMinuteHandPath1.lineTo(mCenterX + mMinuteHandWidth / 3, mCenterY);
-            mMinuteHandPath1.close();
-
-            Path minuteCirclePath = new Path();
-            minuteCirclePath.addCircle(mCenterX, mCenterY, mMinuteHandWidth / 1.5f, Path.Direction.CW);
-
-            mMinuteHandPath1.op(minuteCirclePath, Path.Op.UNION);
-
-            /* second hand */
-
-            mSecondHandPath1 = new Path();
-            mSecondHandPath1.moveTo(mCenterX - mSecondHandWidth / 3, mCenterY);
-            mSecondHandPath1.lineTo(mCenterX - mSecondHandWidth / 2, mCenterY - mSecondHandLength * 0.75f);
-            mSecondHandPath1.lineTo(mCenterX, mCenterY - mSecondHandLength);
-            mSecondHandPath1.lineTo(mCenterX + mSecondHandWidth / 2, mCenterY - mSecondHandLength * 0.75f);
-            mSecondHandPath1.lineTo(mCenterX + mSecondHandWidth / 3, mCenterY);
-            mSecondHandPath1.close();
-
-            Path secondCirclePath = new Path();
-            secondCirclePath.addCircle(mCenterX, mCenterY, mSecondHandWidth / 1.5f, Path.Direction.CW);
-
-            mSecondHandPath1.op(secondCirclePath, Path.Op.UNION);
-
-            /* battery hand */
-
-            mBatteryHandPath1 = new Path();
-            mBatteryHandPath1.moveTo(mBatteryCenterX - mBatteryHandWidth / 3, mBatteryCenterY);
-            mBatteryHandPath1.lineTo(mBatteryCenterX - mBatteryHandWidth / 2, mBatteryCenterY - mBatteryHandLength * 0.75f);
-            mBatteryHandPath1.lineTo(mBatteryCenterX, mBatteryCenterY - mBatteryHandLength);
-            mBatteryHandPath1.lineTo(mBatteryCenterX + mBatteryHandWidth / 2, mBatteryCenterY - mBatteryHandLength * 0.75f);
-            mBatteryHandPath1.lineTo(mBatteryCenterX + mBatteryHandWidth / 3, mBatteryCenterY);
-            mBatteryHandPath1.close();
-
-            Path batteryCirclePath = new Path();
-            batteryCirclePath.addCircle(mBatteryCenterX, mBatteryCenterY, mBatteryHandWidth / 1.5f, Path.Direction.CW);
-
-            mBatteryHandPath1.op(batteryCirclePath, Path.Op.UNION);
-
-            /*
-             * Second Layer Paths
-             */
-
-            float mHourHandY    = mCenterY - mHourHandLength / 3f;
-            float mMinuteHandY  = mCenterY - mMinuteHandLength / 4f;
-            float mSecondHandY  = mCenterY - mSecondHandLength / 4f;
-            float mBatteryHandY = mBatteryCenterY - mBatteryHandLength / 3f;
-
-            mHourHandPath2 = new Path();
-            mHourHandPath2.moveTo(0, mHourHandY);
-            mHourHandPath2.lineTo(mWidth, mHourHandY);
-            mHourHandPath2.lineTo(mWidth, 0);
-            mHourHandPath2.lineTo(0, 0);
-            mHourHandPath2.close();
-            mHourHandPath2.op(mHourHandPath1, Path.Op.INTERSECT);
-
-            mMinuteHandPath2 = new Path();
-            mMinuteHandPath2.moveTo(0, mMinuteHandY);
-            mMinuteHandPath2.lineTo(mWidth, mMinuteHandY);
-            mMinuteHandPath2.lineTo(mWidth, 0);
-            mMinuteHandPath2.lineTo(0, 0);
-            mMinuteHandPath2.close();
-            mMinuteHandPath2.op(mMinuteHandPath1, Path.Op.INTERSECT);
-
-            mSecondHandPath2 = new Path();
-            mSecondHandPath2.moveTo(0, mSecondHandY);
-            mSecondHandPath2.lineTo(mWidth, mSecondHandY);
-            mSecondHandPath2.lineTo(mWidth, 0);
-            mSecondHandPath2.lineTo(0, 0);
-            mSecondHandPath2.close();
-            mSecondHandPath2.op(mSecondHandPath1, Path.Op.INTERSECT);
-
-            mBatteryHandPath2 = new Path();
-            mBatteryHandPath2.moveTo(0, mBatteryHandY);
-            mBatteryHandPath2.lineTo(mWidth, mBatteryHandY);
-            mBatteryHandPath2.lineTo(mWidth, 0);
-            mBatteryHandPath2.lineTo(0, 0);
-            mBatteryHandPath2.close();
-            mBatteryHandPath2.op(mBatteryHandPath1, Path.Op.INTERSECT);
-        }
-
-        private void drawTicks(Canvas canvas, boolean shadow) {
-            if (shadow) {
-                for (int dy = 1; dy <= TICK_NUMBER_SHADOW; dy += 1) {
-                    drawTicks(canvas, true, dy);
-                }
-            } else {
-                drawTicks(canvas, false, 0);
+        /**
+         * Returns the outline of a hand, hub included, as a path.
+         */
+        private Path handPath(HandShape shape) {
+            float[] outline = shape.outline;
+            Path path = new Path();
+            path.moveTo(outline[0], outline[1]);
+            for (int i = 2; i < outline.length; i += 2) {
+                path.lineTo(outline[i], outline[i + 1]);
             }
+            path.close();
+
+            Path hubPath = new Path();
+            hubPath.addCircle(shape.centerX, shape.centerY, shape.hubRadius, Path.Direction.CW);
+            path.op(hubPath, Path.Op.UNION);
+            return path;
         }
 
-        private void drawTicks(Canvas canvas, boolean shadow, int dy) {
-            drawClockTicks(canvas, shadow, dy);
-            drawBatteryTicks(canvas, shadow, dy);
+        /**
+         * Returns the highlighted part of a hand: the part of its outline
+         * above {@link HandShape#highlightY}.
+         */
+        private Path highlightPath(HandShape shape, Path handPath) {
+            Path path = new Path();
+            path.moveTo(0, shape.highlightY);
+            path.lineTo(mGeometry.width, shape.highlightY);
+            path.lineTo(mGeometry.width, 0);
+            path.lineTo(0, 0);
+            path.close();
+            path.op(handPath, Path.Op.INTERSECT);
+            return path;
         }
 
-        private void drawClockTicks(Canvas canvas, boolean shadow, int dy) {
-            if (shadow) {
-                mHourTickPaint.setColor(Color.BLACK);
-                mMinuteTickPaint.setColor(Color.BLACK);
-            } else {
-                mHourTickPaint.setColor(mHourTickColor);
-                mMinuteTickPaint.setColor(mMinuteTickColor);
+        /**
+         * Rasterizes the hands for interactive mode, with the current
+         * paints, unless that has already been done.
+         */
+        private void initHandSprites() {
+            if (mHourHandSprite != null || mHandSpritesFailed) {
+                return;
             }
+            try {
+                mHourHandSprite    = handSprite("hour-hand", mHourHandPath1, mHourHandPaint1,
+                        mHourHandPath2, mHourHandPaint2);
+                mMinuteHandSprite  = handSprite("minute-hand", mMinuteHandPath1, mMinuteHandPaint1,
+                        mMinuteHandPath2, mMinuteHandPaint2);
+                mSecondHandSprite  = handSprite("second-hand", mSecondHandPath1, mSecondHandPaint1,
+                        mSecondHandPath2, mSecondHandPaint2);
+                mBatteryHandSprite = handSprite("battery-hand", mBatteryHandPath1, mBatteryHandPaint1,
+                        mBatteryHandPath2, mBatteryHandPaint2);
+                invalidateFrame();
+            } catch (OutOfMemoryError e) {
+                Log.e(TAG, "cannot allocate hand sprites, drawing hands as paths: " + e.getLocalizedMessage());
+                invalidateHandSprites();
+                mHandSpritesFailed = true;
+            }
+        }
 
-            float centerX = mCenterX;
-            float centerY = mCenterY + (shadow ? (dy * 1f) : 0f);
+        /**
+         * Loads a hand sprite from the disk cache, or renders it and
+         * has the dial worker save it there.  The key covers the paint
+         * colors, so that muted hands are cached apart from the others.
+         */
+        private HandSprite handSprite(String name, Path path1, Paint paint1, Path path2, Paint paint2) {
+            String key = BuildConfig.VERSION_CODE + " " + HandSprite.FORMAT
+                    + " " + (int)mGeometry.width + "x" + (int)mGeometry.height
+                    + " " + Integer.toHexString(paint1.getColor())
+                    + " " + Integer.toHexString(paint2.getColor())
+                    + " " + HAND_SHADOW_RADIUS;
+            HandSprite sprite = HandSprite.load(mDiskCache, name, key, path1, paint1, paint2, HAND_SHADOW_RADIUS);
+            if (sprite == null) {
+                sprite = HandSprite.render(path1, paint1, path2, paint2, HAND_SHADOW_RADIUS);
+                sprite.save(mDialWorker, mDiskCache, name, key);
+            }
+            return sprite;
+        }
 
-            canvas.save();
-            for (int tick = 0; tick < 60; tick += 1) {
-                boolean isHourTick = tick % 5 == 0;
-                if (isHourTick) {
-                    canvas.drawLine(
-                            centerX, centerY - mRadius * TICK_OUTER_RADIUS,
-                            centerX, centerY - mRadius * HOUR_TICK_INNER_RADIUS,
-                            mHourTickPaint
-                    );
-                } else {
-                    canvas.drawLine(
-                            centerX, centerY - mRadius * TICK_OUTER_RADIUS,
-                            centerX, centerY - mRadius * MINUTE_TICK_INNER_RADIUS,
-                            mMinuteTickPaint
-                    );
-                }
-                canvas.rotate(6f, centerX, centerY);
+        private void invalidateHandSprites() {
+            mHandSpritesFailed = false;
+            if (mHourHandSprite != null) {
+                mHourHandSprite.recycle();
+                mHourHandSprite = null;
+            }
+            if (mMinuteHandSprite != null) {
+                mMinuteHandSprite.recycle();
+                mMinuteHandSprite = null;
+            }
+            if (mSecondHandSprite != null) {
+                mSecondHandSprite.recycle();
+                mSecondHandSprite = null;
+            }
+            if (mBatteryHandSprite != null) {
+                mBatteryHandSprite.recycle();
+                mBatteryHandSprite = null;
             }
-            canvas.restore();
         }
 
-        private void drawBatteryTicks(Canvas canvas, boolean shadow, int dy) {
-            if (shadow) {
-                mBatteryTickPaint.setColor(mShadowColor);
-            } else {
-                mBatteryTickPaint.setColor(mBatteryTickColor);
+        /**
+         * Renders the second hand atlas if it is enabled, fits in its
+         * budget, and has not been rendered yet.
+         */
+        private void initSecondHandAtlas() {
+            if (!mSecondHandAtlasEnabled || mSecondHandAtlas != null || mSecondHandAtlasFailed) {
+                return;
+            }
+            try {
+                mSecondHandAtlas = SecondHandAtlas.render(SECOND_HAND_ATLAS_POSITIONS, mSecondHandAtlasBudgetBytes,
+                        mSecondHandPath1, mSecondHandPaint1, mSecondHandPath2, mSecondHandPaint2,
+                        mGeometry.centerX, mGeometry.centerY, HAND_SHADOW_RADIUS);
+                invalidateFrame();
+            } catch (OutOfMemoryError e) {
+                Log.e(TAG, "cannot allocate second hand atlas: " + e.getLocalizedMessage());
+                mSecondHandAtlas = null;
             }
+            if (mSecondHandAtlas == null) {
+                Log.i(TAG, "second hand atlas does not fit in " + mSecondHandAtlasBudgetBytes + " bytes; not using it");
+                mSecondHandAtlasFailed = true;
+            }
+        }
 
-            float offsetY = (shadow ? (dy * 1f) : 0f);
-            float centerX = mBatteryCenterX;
-            float centerY = mBatteryCenterY + offsetY;
+        private void invalidateSecondHandAtlas() {
+            mSecondHandAtlasFailed = false;
+            if (mSecondHandAtlas != null) {
+                mSecondHandAtlas.recycle();
+                mSecondHandAtlas = null;
+            }
+        }
 
-            Paint textPaint = new Paint();
-            textPaint.setAntiAlias(true);
-            textPaint.setTypeface(mTypeface);
-            textPaint.setTextAlign(Paint.Align.CENTER);
-            if (mAmbient) {
-                textPaint.setColor(Color.WHITE);
+        /**
+         * Returns whether the dial for ambient or interactive mode is
+         * missing, and neither on its way nor failed.
+         */
+        private boolean canRequestDial(boolean ambient) {
+            if (ambient) {
+                return mGrayBackgroundBitmap == null && !mGrayDialPending && !mGrayDialFailed;
+            }
+            return mBackgroundBitmap == null && !mDialPending && !mDialFailed;
+        }
+
+        /**
+         * Asks the worker thread for the dial for ambient or interactive
+         * mode, unless it has already been asked, or has failed to build
+         * it since the last time memory was trimmed.
+         */
+        private void requestDial(boolean ambient) {
+            if (ambient ? mGrayDialPending || mGrayDialFailed : mDialPending || mDialFailed) {
+                return;
+            }
+            if (ambient) {
+                mGrayDialPending = true;
             } else {
-                if (shadow) {
-                    textPaint.setColor(mShadowColor);
-                } else {
-                    textPaint.setColor(mBatteryTickColor);
-                }
+                mDialPending = true;
+            }
+            mDialWorker.request(mDialGeneration, (int)mGeometry.width, (int)mGeometry.height,
+                    ambient ? ambientDial() : DialPainter.DIAL_INTERACTIVE, mShowHud);
+        }
+
+        /**
+         * Returns the ambient dial variant the screen calls for.
+         */
+        private int ambientDial() {
+            if (mBurnInProtection) {
+                return DialPainter.DIAL_BURN_IN;
             }
-            textPaint.setTextSize(mDiameter * BATTERY_TEXT_SIZE_PERCENT / 100);
+            return mLowBitAmbient ? DialPainter.DIAL_LOW_BIT : DialPainter.DIAL_AMBIENT;
+        }
 
-            float startAngle = -90f;
-            float endAngle = 90f;
+        /**
+         * Lets the complications render, now that the worker thread
+         * has loaded their typeface.
+         */
+        private void handleTypefaceReadyMessage(Typeface typeface) {
+            mComplications.setTypeface(typeface);
+            invalidate();
+        }
 
-            canvas.save();
-            canvas.rotate(startAngle, centerX, centerY);
-            float rotation = startAngle;
-            for (int tick = 0; tick <= 100; tick += 10) {
-                if (tick == 0 || tick == 50 || tick == 100) {
-                    float tickCenterY = centerY - mBatteryRadius * ((1f + HOUR_TICK_INNER_RADIUS) / 2);
-                    Rect textBounds = new Rect();
-                    String tickString = Integer.toString(tick);
-                    textPaint.getTextBounds(tickString, 0, tickString.length(), textBounds);
-                    canvas.rotate(
-                            -rotation, centerX, tickCenterY
-                    );
-                    canvas.drawText(
-                            tickString,
-                            centerX,
-                            tickCenterY + textBounds.height() * 0.4f,
-                            textPaint
-                    );
-                    canvas.rotate(
-                            rotation, centerX, tickCenterY
-                    );
+        /**
+         * Takes a dial built by the worker thread, unless the surface
+         * changed since it was requested, and records how long it took.
+         */
+        private void handleDialReadyMessage(DialWorker.Result result) {
+            if (result.generation != mDialGeneration) {
+                if (result.bitmap != null) {
+                    result.bitmap.recycle();
+                }
+                return;
+            }
+            boolean ambient = result.dial != DialPainter.DIAL_INTERACTIVE;
+            if (ambient) {
+                mGrayDialPending = false;
+            } else {
+                mDialPending = false;
+            }
+            if (result.bitmap == null) {
+                /* out of memory: drawBackground() keeps the plain background until this is cleared */
+                if (ambient) {
+                    mGrayDialFailed = true;
                 } else {
-                    canvas.drawLine(
-                            centerX, centerY - mBatteryRadius,
-                            centerX, centerY - mBatteryRadius * HOUR_TICK_INNER_RADIUS,
-                            mBatteryTickPaint
-                    );
+                    mDialFailed = true;
                 }
-                canvas.rotate((endAngle - startAngle) / 10, centerX, centerY);
-                rotation += (endAngle - startAngle) / 10;
+                return;
+            }
+            if (mTrimmed && ambient != mAmbient) {
+                /* memory got short while it was being built */
+                result.bitmap.recycle();
+                return;
+            }
+            if (ambient) {
+                mGrayBackgroundBitmap = result.bitmap;
+                mGrayDial = result.dial;
+                mFrameTimings.recordSetup(SETUP_GRAY_BACKGROUND, result.nanos);
+            } else {
+                mBackgroundBitmap = result.bitmap;
+                mFrameTimings.recordSetup(SETUP_BACKGROUND, result.nanos);
+            }
+            mDialPixelStats[result.dial] = result.stats;
+            logDialBitmapMemory(DialPainter.dialName(result.dial), result.bitmap);
+            if (ambient == mAmbient) {
+                invalidateFrame();
+                invalidate();
             }
-            canvas.restore();
-
-            canvas.drawText(
-                    "BATTERY",
-                    mBatteryCenterX,
-                    mBatteryCenterY - mBatteryRadius / 3 + 0.5f * mDiameter * BATTERY_TEXT_SIZE_PERCENT / 100 + offsetY,
-                    textPaint);
         }
 
-        private void initBackgroundBitmap(int width, int height) {
-            Canvas backgroundCanvas = new Canvas();
-            mBackgroundBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            backgroundCanvas.setBitmap(mBackgroundBitmap);
-            backgroundCanvas.drawColor(mBackgroundColor);
+        /**
+         * Builds the dial for the current mode on this thread, unless it
+         * is already there.
+         */
+        private void buildDialNow() {
+            int width  = (int)mGeometry.width;
+            int height = (int)mGeometry.height;
+            if (mAmbient) {
+                dropStaleAmbientDial();
+            }
+            if (mAmbient && mGrayBackgroundBitmap == null) {
+                mGrayDial = ambientDial();
+                mGrayBackgroundBitmap = dialPainter().buildDial(width, height, mGrayDial);
+            } else if (!mAmbient && mBackgroundBitmap == null) {
+                mBackgroundBitmap = dialPainter().buildDial(width, height, DialPainter.DIAL_INTERACTIVE);
+            }
+        }
 
-            drawTicks(backgroundCanvas, true);
-            drawTicks(backgroundCanvas, false);
-            drawHourNumbers(backgroundCanvas, true);
-            drawHourNumbers(backgroundCanvas, false);
+        /**
+         * Forgets the ambient dial if low-bit or burn-in protection
+         * changed since it was built.
+         */
+        private void dropStaleAmbientDial() {
+            if (mGrayBackgroundBitmap != null && mGrayDial != ambientDial()) {
+                mGrayBackgroundBitmap = null;
+            }
         }
 
-        private void initGrayBackgroundBitmap(int width, int height) {
-            Canvas backgroundCanvas = new Canvas();
-            mGrayBackgroundBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
-            backgroundCanvas.setBitmap(mGrayBackgroundBitmap);
-            backgroundCanvas.drawColor(Color.BLACK);
+        private DialPainter dialPainter() {
+            if (mDialPainter == null) {
+                mDialPainter = new DialPainter(getApplicationContext(), mDiskCache, mDialBitmapConfig);
+            }
+            return mDialPainter;
+        }
 
-            drawTicks(backgroundCanvas, false);
-            drawHourNumbers(backgroundCanvas, false);
+        /**
+         * Logs how much memory a dial bitmap takes, and how much it
+         * would take as ARGB_8888.
+         */
+        private void logDialBitmapMemory(String name, Bitmap bitmap) {
+            long bytes = bitmap.getAllocationByteCount();
+            long argbBytes = 4L * bitmap.getWidth() * bitmap.getHeight();
+            Log.i(TAG, name + " takes " + bytes / 1024 + " KB, saving "
+                    + (argbBytes - bytes) / 1024 + " KB over ARGB_8888");
         }
 
-        private void drawHourNumbers(Canvas canvas, boolean shadow) {
-            if (shadow) {
-                for (int dy = 1; dy <= TICK_NUMBER_SHADOW; dy += 1) {
-                    drawHourNumbers(canvas, true, dy);
-                }
+        /**
+         * Draws the dial, or a plain background while the worker thread
+         * is still building it, or after it failed to.
+         */
+        private void drawBackground(Canvas canvas) {
+            if (mAmbient) {
+                dropStaleAmbientDial();
+            }
+            if (mAmbient ? mGrayBackgroundBitmap == null : mBackgroundBitmap == null) {
+                requestDial(mAmbient);
+                canvas.drawColor(mAmbient ? Color.BLACK : mBackgroundColor);
+                return;
+            }
+            long startNanos = System.nanoTime();
+            if (mAmbient) {
+                /* one mask for every ambient variant; low-bit and burn-in ones are pre-dithered */
+                drawGrayBackground(canvas);
             } else {
-                drawHourNumbers(canvas, false, 0);
+                canvas.drawBitmap(mBackgroundBitmap, 0, 0, null);
             }
+            frameTimings().addPhase(PHASE_BACKGROUND, System.nanoTime() - startNanos);
         }
 
-        private void drawHourNumbers(Canvas canvas, boolean shadow, int dy) {
-            if (shadow) {
-                mHourTextPaint.setColor(mShadowColor);
-            } else {
-                mHourTextPaint.setColor(mTextColor);
-            }
-
-            float centerX = mCenterX;
-            float centerY = mCenterY + (shadow ? (dy * 1f) : 0f);
-
-            for (int hour = 1; hour <= 12; hour += 1) {
-                mHourTextPaint.setTextSize(mDiameter * HOUR_TEXT_SIZE_PERCENT / 100);
-                int deg = 30 * (hour % 12);
-                String sHour = Integer.toString(hour);
-                Rect textBounds = new Rect();
-                mHourTextPaint.getTextBounds(sHour, 0, sHour.length(), textBounds);
-                float x = centerX + (float)Math.sin(Math.PI * deg / 180f) * TEXT_OUTER_RADIUS * mRadius;
-                float y = centerY - (float)Math.cos(Math.PI * deg / 180f) * TEXT_OUTER_RADIUS * mRadius;
-                x = x - (float)Math.sin(Math.PI * deg / 180f) * textBounds.width() / 2;
-                y = y + (float)Math.cos(Math.PI * deg / 180f) * textBounds.height() / 2;
-                canvas.drawText(sHour, x, y + textBounds.height() / 2f, mHourTextPaint);
-
-                if (hour % 3 == 0) {
-                    mHourTextPaint.setTextSize(mDiameter * HOUR24_TEXT_SIZE_PERCENT / 100);
-                    sHour = Integer.toString(hour + 12);
-                    Rect textBounds24 = new Rect();
-                    mHourTextPaint.getTextBounds(sHour, 0, sHour.length(), textBounds24);
-                    if (hour > 9 || hour < 3) {
-                        y = y + textBounds.height() / 2f + mDiameter * HOUR24_TEXT_SIZE_OFFSET_PERCENT / 100 + textBounds24.height() / 2f;
-                    } else if (hour == 9 || hour == 3) {
-                        x = x - (float)Math.sin(Math.PI * deg / 180f) * textBounds.width() / 2
-                                - (float)Math.sin(Math.PI * deg / 180f) * mDiameter * HOUR24_TEXT_SIZE_OFFSET_PERCENT / 100
-                                - (float)Math.sin(Math.PI * deg / 180f) * textBounds24.width() / 2;
-                    } else {
-                        y = y - textBounds.height() / 2f - mDiameter * HOUR24_TEXT_SIZE_OFFSET_PERCENT / 100 - textBounds24.height() / 2f;
-                    }
-                    canvas.drawText(sHour, x, y + textBounds24.height() / 2f, mHourTextPaint);
-                }
+        private void drawGrayBackground(Canvas canvas) {
+            canvas.drawColor(Color.BLACK);
+            canvas.drawBitmap(mGrayBackgroundBitmap, 0, 0, mGrayBackgroundPaint);
+        }
+
+        /**
+         * Re-renders the part of the slow layer where the battery, hour
+         * or minute hand moved since the last frame, if any, and leaves
+         * that area in {@link #mSlowLayerDamage}.
+         */
+        private void updateSlowLayer() {
+            if (mSlowLayerBitmap == null) {
+                mSlowLayerBitmap = Bitmap.createBitmap((int)mGeometry.width, (int)mGeometry.height, Bitmap.Config.ARGB_8888);
+                mSlowLayerCanvas.setBitmap(mSlowLayerBitmap);
+                mSlowLayerValid = false;
+            }
+
+            mSlowLayerDamage.setEmpty();
+            if (!mSlowLayerValid) {
+                mHourHandDamage.reset();
+                mMinuteHandDamage.reset();
+                mBatteryHandDamage.reset();
+            }
+            mBatteryHandDamage.addDamage(mBatteryRotation, mGeometry.batteryCenterX, mGeometry.batteryCenterY, mSlowLayerDamage);
+            mHourHandDamage.addDamage(mHourRotation, mGeometry.centerX, mGeometry.centerY, mSlowLayerDamage);
+            mMinuteHandDamage.addDamage(mMinuteRotation, mGeometry.centerX, mGeometry.centerY, mSlowLayerDamage);
+            updateComplications(mSlowLayerDamage);
+            if (!mSlowLayerValid) {
+                mSlowLayerDamage.set(0, 0, (int)mGeometry.width, (int)mGeometry.height);
+                mSlowLayerValid = true;
             }
+
+            if (mSlowLayerDamage.isEmpty()) {
+                mSlowLayerStats.hit();
+                return;
+            }
+            mSlowLayerStats.rebuild();
+            mSlowLayerCanvas.save();
+            mSlowLayerCanvas.clipRect(mSlowLayerDamage);
+            mSlowLayerCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            mComplications.draw(mSlowLayerCanvas);
+            drawBatteryHand(mSlowLayerCanvas);
+            drawHourAndMinuteHands(mSlowLayerCanvas);
+            mSlowLayerCanvas.restore();
         }
 
-        private void drawBackground(Canvas canvas) {
-            if (mAmbient && (mLowBitAmbient || mBurnInProtection)) {
-                canvas.drawBitmap(mGrayBackgroundBitmap, 0, 0, null);
-            } else if (mAmbient) {
-                canvas.drawBitmap(mGrayBackgroundBitmap, 0, 0, null);
-            } else {
-                canvas.drawBitmap(mBackgroundBitmap, 0, 0, null);
+        /**
+         * Re-renders the complications that are out of date for the
+         * current mode, as far as the budget allows, adding where they
+         * are to {@code damage} if not null.  Those left over keep their
+         * previous look, and another frame is asked for.
+         */
+        private void updateComplications(Rect damage) {
+            long startNanos = System.nanoTime();
+            if (mComplications.update(mFrameTimeMs, currentDial(), damage)) {
+                invalidate();
             }
+            frameTimings().addPhase(PHASE_COMPLICATIONS, System.nanoTime() - startNanos);
         }
 
-        private void drawBatteryHand(Canvas canvas) {
+        /**
+         * Brings the complications up to date and draws them, for
+         * ambient frames, which are drawn whole.
+         */
+        private void drawComplications(Canvas canvas) {
+            updateComplications(null);
+            long startNanos = System.nanoTime();
+            mComplications.draw(canvas);
+            frameTimings().addPhase(PHASE_COMPLICATIONS, System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Draws the three interactive layers: two blits and one hand.
+         */
+        private void drawLayers(Canvas canvas) {
+            drawBackground(canvas);
+            long startNanos = System.nanoTime();
+            canvas.drawBitmap(mSlowLayerBitmap, 0, 0, null);
+            frameTimings().addPhase(PHASE_BACKGROUND, System.nanoTime() - startNanos);
+            drawSecondHand(canvas);
+        }
+
+        /**
+         * Recomposes the part of the off-screen frame where the slow
+         * layer changed or the second hand moved, then shows the whole
+         * frame.
+         */
+        private void drawDamagedFrame(Canvas canvas) {
+            if (mFrameBitmap == null) {
+                mFrameBitmap = Bitmap.createBitmap((int)mGeometry.width, (int)mGeometry.height, Bitmap.Config.ARGB_8888);
+                mFrameCanvas.setBitmap(mFrameBitmap);
+                mFrameValid = false;
+            }
+
+            mDamage.set(mSlowLayerDamage);
+            if (!mFrameValid) {
+                mSecondHandDamage.reset();
+            }
+            mSecondHandDamage.addDamage(mSecondRotation, mGeometry.centerX, mGeometry.centerY, mDamage);
+            if (!mFrameValid) {
+                mDamage.set(0, 0, (int)mGeometry.width, (int)mGeometry.height);
+                mFrameValid = true;
+            }
+
+            if (!mDamage.isEmpty()) {
+                mFrameCanvas.save();
+                mFrameCanvas.clipRect(mDamage);
+                drawLayers(mFrameCanvas);
+                mFrameCanvas.restore();
+            }
+            long startNanos = System.nanoTime();
+            canvas.drawBitmap(mFrameBitmap, 0, 0, null);
+            frameTimings().addPhase(PHASE_BACKGROUND, System.nanoTime() - startNanos);
+        }
+
+        /**
+         * Forces the next interactive frame to re-render every layer.
+         */
+        private void invalidateFrame() {
+            mFrameValid = false;
+            mSlowLayerValid = false;
+        }
+
+        /**
+         * Works out the angle of every hand for the current frame.
+         */
+        private void updateHandRotations() {
             float batteryPercentage;
 
             if (demoTimeMode) {
                 //noinspection UnusedAssignment
                 batteryPercentage = 69f;
             } else {
-                IntentFilter intentFilter = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
-                Intent batteryStatus = CockpitWatchFace.this.registerReceiver(null, intentFilter);
-                if (batteryStatus != null) {
-                    int batteryLevel = batteryStatus.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
-                    int batteryScale = batteryStatus.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
-                    batteryPercentage = batteryLevel * 100f / batteryScale;
-                } else {
-                    batteryPercentage = -1f;
-                }
+                batteryPercentage = mBatteryLevelMonitor.getPercentage();
             }
 
-            /* apperance of levels off the odometer range in case they happen */
-            if (batteryPercentage < 0f) {
-                batteryPercentage = -25f;
-            } else if (batteryPercentage > 100f) {
-                batteryPercentage = 125f;
-            }
-
-            float batteryRotation = -90f + 180f * batteryPercentage / 100f;
-            canvas.save();
-            canvas.rotate(batteryRotation, mBatteryCenterX, mBatteryCenterY);
-            canvas.drawPath(mBatteryHandPath1, mBatteryHandPaint1);
-            canvas.drawPath(mBatteryHandPath2, mBatteryHandPaint2);
-            canvas.restore();
-
-        }
+            mBatteryRotation = HandAngles.quantize(HandAngles.batteryAngle(batteryPercentage), mBatteryRotationQuantum);
 
-        private void drawWatchFace(Canvas canvas) {
             int h;
             int m;
             int s;
@@ -981,40 +1822,112 @@ public class CockpitWatchFace extends CanvasWatchFaceService {
                 //noinspection UnusedAssignment
                 ms = 500;
             } else {
-                h  = mCalendar.get(Calendar.HOUR);
-                m  = mCalendar.get(Calendar.MINUTE);
-                s  = mCalendar.get(Calendar.SECOND);
-                ms = mCalendar.get(Calendar.MILLISECOND);
+                h  = mWallClock.getHour();
+                m  = mWallClock.getMinute();
+                s  = mWallClock.getSecond();
+                ms = mWallClock.getMillisecond();
             }
 
-            final float seconds = (float)s + (float) ms / 1000f; /* 0 to 60 */
-            final float minutes = (float)m + seconds / 60f; /* 0 to 60 */
-            final float hours   = (float)h + minutes / 60f; /* 0 to 12 */
+            if (mAmbient) {
+                /* whole minutes; see AMBIENT_HAND_STEP_MS */
+                s  = 0;
+                ms = 0;
+            } else if (mFrameRateScheduler.getRate() == FrameRateScheduler.RATE_TICK) {
+                /* frames land on second boundaries, give or take a few ms; tick exactly */
+                ms = 0;
+            }
 
-            final float secondsRotation = seconds * 6f;
-            final float minutesRotation = minutes * 6f;
-            final float hoursRotation   = hours * 30f;
+            mHourRotation   = HandAngles.quantize(HandAngles.hourAngle(h, m, s, ms), mHourRotationQuantum);
+            mMinuteRotation = HandAngles.quantize(HandAngles.minuteAngle(m, s, ms), mMinuteRotationQuantum);
+            mSecondRotation = HandAngles.secondAngle(s, ms);
+
+            int shift = 2 * (m % (PIXEL_SHIFTS.length / 2));
+            mPixelShiftX = PIXEL_SHIFTS[shift] * PIXEL_SHIFT_STEP;
+            mPixelShiftY = PIXEL_SHIFTS[shift + 1] * PIXEL_SHIFT_STEP;
+
+            /* the atlas is too coarse for smooth sweeps */
+            mUseSecondHandAtlas = mSecondHandAtlas != null
+                    && mFrameRateScheduler.getRate() * 60 <= mSecondHandAtlas.getPositions();
+            if (mUseSecondHandAtlas) {
+                int positions = mSecondHandAtlas.getPositions();
+                float seconds = HandAngles.secondFraction(s, ms);
+                mSecondHandAtlasPosition = Math.round(seconds * positions / 60f) % positions;
+                mSecondRotation = 360f * mSecondHandAtlasPosition / positions;
+            }
+        }
 
-            canvas.save();
+        private void drawBatteryHand(Canvas canvas) {
+            long startNanos = System.nanoTime();
+            drawHand(canvas, mBatteryRotation, mGeometry.batteryCenterX, mGeometry.batteryCenterY, mBatteryHandSprite,
+                    mBatteryHandPath1, mBatteryHandPaint1, mBatteryHandPath2, mBatteryHandPaint2);
+            frameTimings().addPhase(PHASE_BATTERY_HAND, System.nanoTime() - startNanos);
+        }
 
-            canvas.rotate(hoursRotation, mCenterX, mCenterY);
-            canvas.drawPath(mHourHandPath1, mHourHandPaint1);
-            canvas.drawPath(mHourHandPath2, mHourHandPaint2);
+        private void drawWatchFace(Canvas canvas) {
+            drawHourAndMinuteHands(canvas);
+            drawSecondHand(canvas);
+        }
 
-            canvas.rotate(minutesRotation - hoursRotation, mCenterX, mCenterY);
-            canvas.drawPath(mMinuteHandPath1, mMinuteHandPaint1);
-            canvas.drawPath(mMinuteHandPath2, mMinuteHandPaint2);
+        private void drawHourAndMinuteHands(Canvas canvas) {
+            long startNanos = System.nanoTime();
+            drawHand(canvas, mHourRotation, mGeometry.centerX, mGeometry.centerY, mHourHandSprite,
+                    mHourHandPath1, mHourHandPaint1, mHourHandPath2, mHourHandPaint2);
+            drawHand(canvas, mMinuteRotation, mGeometry.centerX, mGeometry.centerY, mMinuteHandSprite,
+                    mMinuteHandPath1, mMinuteHandPaint1, mMinuteHandPath2, mMinuteHandPaint2);
+            frameTimings().addPhase(PHASE_HANDS, System.nanoTime() - startNanos);
+        }
 
-            if (!mAmbient) {
-                canvas.rotate(secondsRotation - minutesRotation, mCenterX, mCenterY);
-                canvas.drawPath(mSecondHandPath1, mSecondHandPaint1);
-                canvas.drawPath(mSecondHandPath2, mSecondHandPaint2);
+        private void drawSecondHand(Canvas canvas) {
+            long startNanos = System.nanoTime();
+            if (!mAmbient && mUseSecondHandAtlas) {
+                int bodyColor = mSecondHandPaint1.getColor();
+                int shadowAlpha = Color.alpha(mShadowColor) * Color.alpha(bodyColor) / 255;
+                mSecondHandAtlas.draw(canvas, mSecondHandAtlasPosition, mGeometry.centerX, mGeometry.centerY,
+                        HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y,
+                        (mShadowColor & 0x00ffffff) | (shadowAlpha << 24),
+                        bodyColor, mSecondHandPaint2.getColor());
+            } else if (!mAmbient) {
+                drawHand(canvas, mSecondRotation, mGeometry.centerX, mGeometry.centerY, mSecondHandSprite,
+                        mSecondHandPath1, mSecondHandPaint1, mSecondHandPath2, mSecondHandPaint2);
             }
+            frameTimings().addPhase(PHASE_HANDS, System.nanoTime() - startNanos);
+        }
 
+        /**
+         * Draws a hand from its sprite in interactive mode, or from its
+         * paths in ambient mode and when there is no sprite; only its
+         * outline in ambient mode with burn-in protection.
+         */
+        private void drawHand(Canvas canvas, float rotation, float centerX, float centerY, HandSprite sprite,
+                              Path path1, Paint paint1, Path path2, Paint paint2) {
+            if (sprite != null && !mAmbient) {
+                sprite.draw(canvas, rotation, centerX, centerY,
+                        HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y, mHandSpriteShadowPaint, mHandSpritePaint);
+                return;
+            }
+            if (mHardwareAccelerated && !mAmbient) {
+                /* the shadow offset is in screen space, so translate before rotating */
+                canvas.save();
+                canvas.translate(HAND_SHADOW_OFFSET_X, HAND_SHADOW_OFFSET_Y);
+                canvas.rotate(rotation, centerX, centerY);
+                canvas.drawPath(path1, mHandShadowPaint);
+                canvas.restore();
+            }
+            canvas.save();
+            canvas.rotate(rotation, centerX, centerY);
+            canvas.drawPath(path1, paint1);
+            if (mAmbient && mBurnInProtection) {
+                /* black body, lit outline: as few lit pixels as will still read as a hand */
+                canvas.drawPath(path1, mHandOutlinePaint);
+            } else {
+                canvas.drawPath(path2, paint2);
+            }
             canvas.restore();
         }
 
         private ScreenTimeExtender mScreenTimeExtender;
         private AmbientRefresher   mAmbientRefresher;
+        private BatteryLevelMonitor mBatteryLevelMonitor;
+        private FrameRateScheduler  mFrameRateScheduler;
     }
 }
@@ -0,0 +1,52 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.app.PendingIntent;
+
+/**
+ * What a complication slot shows, wherever it comes from: a provider's
+ * data through {@link ComplicationDataContent}, or a
+ * {@link FakeComplicationContent} where the output has to be known in
+ * advance.
+ */
+interface ComplicationContent {
+    /**
+     * Returns whether there is anything to show at a given time.
+     */
+    boolean isActive(long timeMs);
+
+    /**
+     * Returns the main text at a given time, or null.
+     */
+    CharSequence getText(long timeMs);
+
+    /**
+     * Returns the smaller text shown under the main one at a given
+     * time, or null.
+     */
+    CharSequence getTitle(long timeMs);
+
+    /**
+     * Returns whether there is a value to show as a gauge, in which
+     * case {@link #getValue}, {@link #getMinValue} and
+     * {@link #getMaxValue} say where it stands.
+     */
+    boolean hasRange();
+
+    float getValue();
+
+    float getMinValue();
+
+    float getMaxValue();
+
+    /**
+     * Returns the first time after {@code timeMs} at which what is
+     * shown may change without new content coming in, or
+     * Long.MAX_VALUE if it never does.
+     */
+    long getNextChangeMs(long timeMs);
+
+    /**
+     * Returns what to launch when the slot is tapped, or null.
+     */
+    PendingIntent getTapAction();
+}
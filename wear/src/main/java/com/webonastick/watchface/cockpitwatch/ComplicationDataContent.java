@@ -0,0 +1,112 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.support.wearable.complications.ComplicationData;
+import android.support.wearable.complications.ComplicationText;
+
+/**
+ * Complication content from a provider's {@link ComplicationData}.
+ */
+final class ComplicationDataContent implements ComplicationContent {
+
+    /* the types a slot knows how to draw */
+    static final int[] SUPPORTED_TYPES = {
+            ComplicationData.TYPE_SHORT_TEXT,
+            ComplicationData.TYPE_RANGED_VALUE
+    };
+
+    private final Context mContext;
+    private final ComplicationData mData;
+
+    private ComplicationDataContent(Context context, ComplicationData data) {
+        mContext = context;
+        mData = data;
+    }
+
+    /**
+     * Returns the content of data of a supported type, or null for
+     * anything else, including empty or unconfigured slots.
+     */
+    static ComplicationDataContent from(Context context, ComplicationData data) {
+        if (data == null) {
+            return null;
+        }
+        for (int type : SUPPORTED_TYPES) {
+            if (data.getType() == type) {
+                return new ComplicationDataContent(context, data);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public boolean isActive(long timeMs) {
+        return mData.isActive(timeMs);
+    }
+
+    @Override
+    public CharSequence getText(long timeMs) {
+        return text(mData.getShortText(), timeMs);
+    }
+
+    @Override
+    public CharSequence getTitle(long timeMs) {
+        return text(mData.getShortTitle(), timeMs);
+    }
+
+    private CharSequence text(ComplicationText text, long timeMs) {
+        return text == null ? null : text.getText(mContext, timeMs);
+    }
+
+    @Override
+    public boolean hasRange() {
+        return mData.getType() == ComplicationData.TYPE_RANGED_VALUE;
+    }
+
+    @Override
+    public float getValue() {
+        return mData.getValue();
+    }
+
+    @Override
+    public float getMinValue() {
+        return mData.getMinValue();
+    }
+
+    @Override
+    public float getMaxValue() {
+        return mData.getMaxValue();
+    }
+
+    /**
+     * Returns when the data next becomes active or inactive, or when
+     * its time-dependent text, such as a countdown, next changes.
+     */
+    @Override
+    public long getNextChangeMs(long timeMs) {
+        long nextMs = Long.MAX_VALUE;
+        if (mData.getStartTime() > timeMs) {
+            nextMs = mData.getStartTime();
+        }
+        if (mData.getEndTime() >= timeMs && mData.getEndTime() != Long.MAX_VALUE) {
+            /* the end time is the last one the data is active at */
+            nextMs = Math.min(nextMs, mData.getEndTime() + 1);
+        }
+        nextMs = Math.min(nextMs, nextChangeMs(mData.getShortText(), timeMs));
+        nextMs = Math.min(nextMs, nextChangeMs(mData.getShortTitle(), timeMs));
+        return nextMs;
+    }
+
+    private static long nextChangeMs(ComplicationText text, long timeMs) {
+        if (text == null || !text.isTimeDependent()) {
+            return Long.MAX_VALUE;
+        }
+        return text.getNextChangeTime(timeMs);
+    }
+
+    @Override
+    public PendingIntent getTapAction() {
+        return mData.getTapAction();
+    }
+}
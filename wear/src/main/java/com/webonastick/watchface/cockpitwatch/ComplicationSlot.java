@@ -0,0 +1,128 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+
+/**
+ * One complication: its content, where it goes on the screen, and the
+ * bitmap it was last rendered into.  The bitmap is drawn as it is on
+ * every frame, even once it is out of date, until {@link Complications}
+ * gets around to rendering it again.
+ */
+final class ComplicationSlot {
+    private final int mId;
+
+    private float mCenterX;
+    private float mCenterY;
+    private float mRadius;
+    private final Rect mBounds = new Rect();
+
+    private ComplicationContent mContent;
+
+    private Bitmap mBitmap;
+    private boolean mValid = false;
+    private int mMode = -1;
+    private long mNextChangeMs = Long.MAX_VALUE;
+
+    ComplicationSlot(int id) {
+        mId = id;
+    }
+
+    int getId() {
+        return mId;
+    }
+
+    /**
+     * Places the slot's circle, and drops its bitmap if the size
+     * changed.
+     *
+     * @param margin extra room around the circle for its stroke.
+     */
+    void setBounds(float centerX, float centerY, float radius, float margin) {
+        mCenterX = centerX;
+        mCenterY = centerY;
+        mRadius = radius;
+        int left = (int)Math.floor(centerX - radius - margin);
+        int top  = (int)Math.floor(centerY - radius - margin);
+        int size = (int)Math.ceil(2 * (radius + margin));
+        if (mBounds.width() != size || mBounds.height() != size) {
+            recycle();
+        }
+        mBounds.set(left, top, left + size, top + size);
+        mValid = false;
+    }
+
+    Rect getBounds() {
+        return mBounds;
+    }
+
+    float getRadius() {
+        return mRadius;
+    }
+
+    boolean contains(int x, int y) {
+        float dx = x - mCenterX;
+        float dy = y - mCenterY;
+        return dx * dx + dy * dy <= mRadius * mRadius;
+    }
+
+    void setContent(ComplicationContent content) {
+        mContent = content;
+        mValid = false;
+    }
+
+    ComplicationContent getContent() {
+        return mContent;
+    }
+
+    /**
+     * Returns whether the bitmap no longer shows the content as it
+     * should look in a given DialPainter.DIAL_* mode at a given time.
+     */
+    boolean isStale(long timeMs, int mode) {
+        return !mValid || mode != mMode || timeMs >= mNextChangeMs;
+    }
+
+    long getNextChangeMs() {
+        return mNextChangeMs;
+    }
+
+    /**
+     * Returns the bitmap to render into, cleared, creating it the first
+     * time.
+     */
+    Bitmap beginRender() {
+        if (mBitmap == null) {
+            mBitmap = Bitmap.createBitmap(mBounds.width(), mBounds.height(), Bitmap.Config.ARGB_8888);
+        } else {
+            mBitmap.eraseColor(0);
+        }
+        return mBitmap;
+    }
+
+    /**
+     * Records that the bitmap now shows the content in a given mode,
+     * until {@code nextChangeMs}.
+     */
+    void endRender(int mode, long nextChangeMs) {
+        mValid = true;
+        mMode = mode;
+        mNextChangeMs = nextChangeMs;
+    }
+
+    void draw(Canvas canvas, Paint paint) {
+        if (mBitmap != null) {
+            canvas.drawBitmap(mBitmap, mBounds.left, mBounds.top, paint);
+        }
+    }
+
+    void recycle() {
+        if (mBitmap != null) {
+            mBitmap.recycle();
+            mBitmap = null;
+        }
+        mValid = false;
+    }
+}
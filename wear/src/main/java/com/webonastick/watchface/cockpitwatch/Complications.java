@@ -0,0 +1,318 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.app.PendingIntent;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+import android.util.Log;
+import androidx.core.content.ContextCompat;
+
+import com.webonastick.watchface.CacheStats;
+import com.webonastick.watchface.cockpitwatch.core.FrameBudget;
+
+/**
+ * The watch face's complication slots.
+ *
+ * Each slot is rendered into its own bitmap, which every frame then
+ * just draws, and only rendered again when its content or the mode
+ * changes, or when its text is time-dependent and due to change.
+ * Rendering is done within a time budget per frame, see
+ * {@link FrameBudget}: a slot whose last render times say it would not
+ * fit in what is left of the budget keeps showing its previous bitmap
+ * until a later frame, rather than holding this one up.
+ *
+ * Nothing is rendered until {@link #setTypeface} is called: loading
+ * the typeface takes longer than any frame's budget, so it is left to
+ * the {@link DialWorker}.
+ */
+final class Complications {
+    private static final String TAG = "Complications";
+
+    private static final float RING_STROKE_WIDTH  = 2f;
+    private static final float GAUGE_STROKE_WIDTH = 4f;
+
+    /* text sizes and widest text, as fractions of the slot radius */
+    private static final float TEXT_SIZE  = 0.45f;
+    private static final float TITLE_SIZE = 0.28f;
+    private static final float TEXT_WIDTH = 1.6f;
+
+    private final ComplicationSlot[] mSlots;
+    private final FrameBudget mBudget;
+
+    private final CacheStats mStats = new CacheStats("complications");
+    private long mDeferred = 0;
+
+    private final int mTextColor;
+    private final int mRingColor;
+    private final int mGaugeColor;
+
+    private final Paint mTextPaint;
+    private final Paint mTitlePaint;
+    private final Paint mRingPaint;
+    private final Paint mGaugePaint;
+
+    private final Canvas mCanvas = new Canvas();
+    private final RectF mOval = new RectF();
+
+    /* loaded on the worker thread; see setTypeface() */
+    private Typeface mTypeface;
+
+    /**
+     * @param ids         one slot per id, as passed to
+     *                    setActiveComplications().
+     * @param budgetNanos how long a frame may spend rendering slots.
+     */
+    Complications(Context context, int[] ids, long budgetNanos) {
+        mBudget = new FrameBudget(ids.length, budgetNanos);
+        mSlots = new ComplicationSlot[ids.length];
+        for (int i = 0; i < ids.length; i += 1) {
+            mSlots[i] = new ComplicationSlot(ids[i]);
+        }
+
+        mTextColor  = ContextCompat.getColor(context, R.color.text_color);
+        mRingColor  = ContextCompat.getColor(context, R.color.minute_tick_color);
+        mGaugeColor = ContextCompat.getColor(context, R.color.battery_tick_color);
+
+        mTextPaint = new Paint();
+        mTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        mTitlePaint = new Paint();
+        mTitlePaint.setTextAlign(Paint.Align.CENTER);
+
+        mRingPaint = new Paint();
+        mRingPaint.setStyle(Paint.Style.STROKE);
+        mRingPaint.setStrokeWidth(RING_STROKE_WIDTH);
+
+        mGaugePaint = new Paint();
+        mGaugePaint.setStyle(Paint.Style.STROKE);
+        mGaugePaint.setStrokeCap(Paint.Cap.BUTT);
+    }
+
+    /**
+     * Sets the typeface slots are rendered with; until then,
+     * {@link #update} renders nothing.
+     */
+    void setTypeface(Typeface typeface) {
+        mTypeface = typeface;
+        mTextPaint.setTypeface(typeface);
+        mTitlePaint.setTypeface(typeface);
+    }
+
+    void setBudgetNanos(long budgetNanos) {
+        mBudget.setBudgetNanos(budgetNanos);
+    }
+
+    long getBudgetNanos() {
+        return mBudget.getBudgetNanos();
+    }
+
+    /**
+     * Places a slot's circle on the screen.
+     */
+    void setBounds(int id, float centerX, float centerY, float radius) {
+        ComplicationSlot slot = findSlot(id);
+        if (slot != null) {
+            slot.setBounds(centerX, centerY, radius, GAUGE_STROKE_WIDTH);
+        }
+    }
+
+    /**
+     * Sets what a slot shows; null empties it.  The slot is rendered
+     * again on a later frame, and shows what it did before until then.
+     */
+    void setContent(int id, ComplicationContent content) {
+        ComplicationSlot slot = findSlot(id);
+        if (slot != null) {
+            slot.setContent(content);
+        }
+    }
+
+    ComplicationContent getContent(int id) {
+        ComplicationSlot slot = findSlot(id);
+        return slot == null ? null : slot.getContent();
+    }
+
+    private ComplicationSlot findSlot(int id) {
+        for (ComplicationSlot slot : mSlots) {
+            if (slot.getId() == id) {
+                return slot;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Renders the slots that are out of date for a DialPainter.DIAL_*
+     * mode, each only if it is expected to fit in what is left of the
+     * budget.  A slot too slow for any frame's budget is still rendered
+     * now and then, alone in its frame; see {@link FrameBudget}.
+     *
+     * @param damage if not null, gets the bounds of every slot rendered.
+     * @return whether some slot is still out of date, in which case
+     *         another frame should follow.  False while there is no
+     *         typeface yet: setting it is followed by a frame anyway.
+     */
+    boolean update(long timeMs, int mode, Rect damage) {
+        if (mTypeface == null) {
+            return false;
+        }
+        mBudget.beginFrame(System.nanoTime());
+        boolean behind = false;
+        for (int i = 0; i < mSlots.length; i += 1) {
+            ComplicationSlot slot = mSlots[i];
+            if (!slot.isStale(timeMs, mode)) {
+                mStats.hit();
+                continue;
+            }
+            long startNanos = System.nanoTime();
+            if (!mBudget.tryStart(i, startNanos)) {
+                mDeferred += 1;
+                behind = true;
+                continue;
+            }
+            mStats.rebuild();
+            render(slot, timeMs, mode);
+            mBudget.finish(i, System.nanoTime() - startNanos);
+            if (damage != null) {
+                damage.union(slot.getBounds());
+            }
+        }
+        return behind;
+    }
+
+    /**
+     * Draws every slot as last rendered.
+     */
+    void draw(Canvas canvas) {
+        for (ComplicationSlot slot : mSlots) {
+            slot.draw(canvas, null);
+        }
+    }
+
+    /**
+     * Launches the tap action of the slot at a point, if any.
+     *
+     * @return whether a slot took the tap.
+     */
+    boolean onTap(int x, int y) {
+        for (ComplicationSlot slot : mSlots) {
+            if (!slot.contains(x, y) || slot.getContent() == null) {
+                continue;
+            }
+            PendingIntent tapAction = slot.getContent().getTapAction();
+            if (tapAction == null) {
+                return false;
+            }
+            try {
+                tapAction.send();
+            } catch (PendingIntent.CanceledException e) {
+                Log.e(TAG, "complication " + slot.getId() + " tap action canceled: " + e.getLocalizedMessage());
+            }
+            return true;
+        }
+        return false;
+    }
+
+    void recycle() {
+        for (ComplicationSlot slot : mSlots) {
+            slot.recycle();
+        }
+    }
+
+    private void render(ComplicationSlot slot, long timeMs, int mode) {
+        ComplicationContent content = slot.getContent();
+        Bitmap bitmap;
+        try {
+            bitmap = slot.beginRender();
+        } catch (OutOfMemoryError e) {
+            Log.e(TAG, "cannot allocate complication " + slot.getId() + ": " + e.getLocalizedMessage());
+            slot.endRender(mode, Long.MAX_VALUE);
+            return;
+        }
+        if (content == null || !content.isActive(timeMs)) {
+            slot.endRender(mode, content == null ? Long.MAX_VALUE : content.getNextChangeMs(timeMs));
+            return;
+        }
+
+        setPaints(mode);
+        float radius = slot.getRadius();
+        float centerX = bitmap.getWidth() / 2f;
+        float centerY = bitmap.getHeight() / 2f;
+        mCanvas.setBitmap(bitmap);
+
+        if (mode != DialPainter.DIAL_BURN_IN) {
+            mCanvas.drawCircle(centerX, centerY, radius, mRingPaint);
+        }
+        if (content.hasRange()) {
+            float range = content.getMaxValue() - content.getMinValue();
+            float fraction = range <= 0f ? 0f : (content.getValue() - content.getMinValue()) / range;
+            fraction = Math.max(0f, Math.min(1f, fraction));
+            mOval.set(centerX - radius, centerY - radius, centerX + radius, centerY + radius);
+            mCanvas.drawArc(mOval, -90f, 360f * fraction, false, mGaugePaint);
+        }
+
+        CharSequence text = content.getText(timeMs);
+        CharSequence title = content.getTitle(timeMs);
+        float textSize = radius * TEXT_SIZE;
+        float titleSize = radius * TITLE_SIZE;
+        float maxWidth = radius * TEXT_WIDTH;
+        if (title == null) {
+            drawText(text, centerX, centerY + textSize * 0.35f, textSize, maxWidth, mTextPaint);
+        } else {
+            drawText(text, centerX, centerY, textSize, maxWidth, mTextPaint);
+            drawText(title, centerX, centerY + titleSize * 1.2f, titleSize, maxWidth, mTitlePaint);
+        }
+
+        mCanvas.setBitmap(null);
+        slot.endRender(mode, content.getNextChangeMs(timeMs));
+    }
+
+    /**
+     * Draws a line of text, shrunk to fit {@code maxWidth} if need be.
+     */
+    private void drawText(CharSequence text, float x, float y, float size, float maxWidth, Paint paint) {
+        if (text == null || text.length() == 0) {
+            return;
+        }
+        paint.setTextSize(size);
+        float width = paint.measureText(text, 0, text.length());
+        if (width > maxWidth) {
+            paint.setTextSize(size * maxWidth / width);
+        }
+        mCanvas.drawText(text, 0, text.length(), x, y, paint);
+    }
+
+    /**
+     * Sets up the paints for a DialPainter.DIAL_* mode: colors when
+     * interactive, white in ambient mode, no antialiasing on low-bit
+     * screens, and outlined text with burn-in protection.
+     */
+    private void setPaints(int mode) {
+        boolean ambient = mode != DialPainter.DIAL_INTERACTIVE;
+        boolean antiAlias = mode == DialPainter.DIAL_INTERACTIVE || mode == DialPainter.DIAL_AMBIENT;
+        Paint.Style textStyle = mode == DialPainter.DIAL_BURN_IN ? Paint.Style.STROKE : Paint.Style.FILL;
+
+        mTextPaint.setColor(ambient ? Color.WHITE : mTextColor);
+        mTitlePaint.setColor(ambient ? Color.WHITE : mTextColor);
+        mRingPaint.setColor(ambient ? Color.WHITE : mRingColor);
+        mGaugePaint.setColor(ambient ? Color.WHITE : mGaugeColor);
+        mGaugePaint.setStrokeWidth(mode == DialPainter.DIAL_BURN_IN ? RING_STROKE_WIDTH : GAUGE_STROKE_WIDTH);
+        mTextPaint.setStyle(textStyle);
+        mTitlePaint.setStyle(textStyle);
+
+        mTextPaint.setAntiAlias(antiAlias);
+        mTitlePaint.setAntiAlias(antiAlias);
+        mRingPaint.setAntiAlias(antiAlias);
+        mGaugePaint.setAntiAlias(antiAlias);
+    }
+
+    @Override
+    public String toString() {
+        return mStats + ", " + mDeferred + " deferred over budget";
+    }
+}
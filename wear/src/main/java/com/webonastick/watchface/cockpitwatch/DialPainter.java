@@ -0,0 +1,252 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Typeface;
+import androidx.core.content.ContextCompat;
+
+import java.nio.ByteBuffer;
+
+import com.webonastick.watchface.BitmapDiskCache;
+import com.webonastick.watchface.cockpitwatch.core.DialGeometry;
+import com.webonastick.watchface.cockpitwatch.core.DialLayout;
+import com.webonastick.watchface.cockpitwatch.core.DialRenderer;
+import com.webonastick.watchface.cockpitwatch.core.DrawTarget;
+import com.webonastick.watchface.cockpitwatch.core.TickGeometry;
+
+/**
+ * Everything needed to build the dial bitmaps: colors, typeface,
+ * paints, geometry and layout.
+ *
+ * Not thread-safe: an instance must only ever be used from one thread.
+ * The watch face keeps one on its {@link DialWorker} thread, and makes
+ * another on the main thread when it needs a dial synchronously.
+ */
+final class DialPainter {
+
+    /*
+     * Dial variants.  Ambient ones are ALPHA_8 masks: antialiased, or
+     * on low-bit screens only fully on or off pixels, or for burn-in
+     * protection only every other one of those, in a checkerboard.
+     */
+    static final int DIAL_INTERACTIVE = 0;
+    static final int DIAL_AMBIENT     = 1;
+    static final int DIAL_LOW_BIT     = 2;
+    static final int DIAL_BURN_IN     = 3;
+    static final int DIALS            = 4;
+
+    private static final String[] DIAL_NAMES = {
+            "interactive-dial", "ambient-dial", "low-bit-dial", "burn-in-dial"
+    };
+
+    private static final float HOUR_TICK_STROKE_WIDTH    = 3f;
+    private static final float MINUTE_TICK_STROKE_WIDTH  = 3f;
+    private static final float BATTERY_TICK_STROKE_WIDTH = 3f;
+
+    private final Context mContext;
+    private final BitmapDiskCache mDiskCache;
+    private final Bitmap.Config mBitmapConfig;
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final DialLayout mLayout = new DialLayout();
+    private final DialRenderer mRenderer = new DialRenderer(mTicks, mLayout);
+
+    private final int mBackgroundColor;
+    private final int mShadowColor;
+    private final int mTextColor;
+    private final int mHourTickColor;
+    private final int mMinuteTickColor;
+    private final int mBatteryTickColor;
+
+    private final Paint mHourTickPaint;
+    private final Paint mMinuteTickPaint;
+    private final Paint mBatteryTickPaint;
+    private final Paint mHourTextPaint;
+    private final Paint mBatteryTextPaint;
+    private final CanvasDrawTarget mTarget;
+
+    /* loaded on first layout: a dial loaded from the disk cache does not need it */
+    private Typeface mTypeface;
+
+    private int mWidth = -1;
+    private int mHeight = -1;
+
+    /**
+     * @param bitmapConfig config of the interactive dial; the ambient
+     *                     dial is always an ALPHA_8 mask.
+     */
+    DialPainter(Context context, BitmapDiskCache diskCache, Bitmap.Config bitmapConfig) {
+        mContext = context;
+        mDiskCache = diskCache;
+        mBitmapConfig = bitmapConfig;
+
+        mBackgroundColor  = ContextCompat.getColor(context, R.color.background_color);
+        mShadowColor      = ContextCompat.getColor(context, R.color.shadow_color);
+        mTextColor        = ContextCompat.getColor(context, R.color.text_color);
+        mHourTickColor    = ContextCompat.getColor(context, R.color.hour_tick_color);
+        mMinuteTickColor  = ContextCompat.getColor(context, R.color.minute_tick_color);
+        mBatteryTickColor = ContextCompat.getColor(context, R.color.battery_tick_color);
+
+        mRenderer.setColors(mShadowColor, mTextColor, mHourTickColor, mMinuteTickColor, mBatteryTickColor);
+
+        mHourTickPaint = new Paint();
+        mHourTickPaint.setStrokeWidth(HOUR_TICK_STROKE_WIDTH);
+        mHourTickPaint.setStyle(Paint.Style.STROKE);
+        mHourTickPaint.setStrokeCap(Paint.Cap.BUTT);
+
+        mMinuteTickPaint = new Paint();
+        mMinuteTickPaint.setStrokeWidth(MINUTE_TICK_STROKE_WIDTH);
+        mMinuteTickPaint.setStyle(Paint.Style.STROKE);
+        mMinuteTickPaint.setStrokeCap(Paint.Cap.BUTT);
+
+        mBatteryTickPaint = new Paint();
+        mBatteryTickPaint.setStrokeWidth(BATTERY_TICK_STROKE_WIDTH);
+        mBatteryTickPaint.setStyle(Paint.Style.STROKE);
+        mBatteryTickPaint.setStrokeCap(Paint.Cap.BUTT);
+
+        mHourTextPaint = new Paint();
+        mHourTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        mBatteryTextPaint = new Paint();
+        mBatteryTextPaint.setAntiAlias(true);
+        mBatteryTextPaint.setTextAlign(Paint.Align.CENTER);
+
+        mTarget = new CanvasDrawTarget(mHourTickPaint, mMinuteTickPaint, mBatteryTickPaint,
+                mHourTextPaint, mBatteryTextPaint);
+    }
+
+    /**
+     * Computes the dial geometry for a surface of the given size.
+     */
+    void setSize(int width, int height) {
+        mGeometry.update(width, height);
+        mTicks.build(mGeometry);
+        mWidth = width;
+        mHeight = height;
+    }
+
+    /**
+     * Computes the position of every dial label, unless the cached
+     * layout already matches the current size and typeface.
+     */
+    void updateLayout() {
+        ensureTypeface();
+        mLayout.update(mGeometry, mTarget, mWidth, mHeight, mTypeface);
+    }
+
+    void invalidateLayout() {
+        mLayout.invalidate();
+    }
+
+    /**
+     * Draws the dial for the current size through any target; see
+     * {@link DialRenderer#drawDial}.
+     */
+    void drawDial(DrawTarget target, boolean shadows, boolean ambient) {
+        mRenderer.drawDial(target, shadows, ambient);
+    }
+
+    static String dialName(int dial) {
+        return DIAL_NAMES[dial];
+    }
+
+    /**
+     * Returns one of the DIAL_* variants, loaded from the disk cache or
+     * rendered and saved there.
+     */
+    Bitmap buildDial(int width, int height, int dial) {
+        String name = DIAL_NAMES[dial];
+        String key = cacheKey(width, height);
+        Bitmap bitmap = mDiskCache.load(name, key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+
+        boolean ambient = dial != DIAL_INTERACTIVE;
+        boolean antiAlias = dial == DIAL_INTERACTIVE || dial == DIAL_AMBIENT;
+        setSize(width, height);
+        updateLayout();
+        mHourTickPaint.setAntiAlias(antiAlias);
+        mMinuteTickPaint.setAntiAlias(antiAlias);
+        mBatteryTickPaint.setAntiAlias(antiAlias);
+        mHourTextPaint.setAntiAlias(antiAlias);
+
+        Canvas canvas = new Canvas();
+        if (ambient) {
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+            canvas.setBitmap(bitmap);
+        } else {
+            bitmap = Bitmap.createBitmap(width, height, mBitmapConfig);
+            canvas.setBitmap(bitmap);
+            canvas.drawColor(mBackgroundColor);
+        }
+        mTarget.setCanvas(canvas);
+        mRenderer.drawDial(mTarget, !ambient, ambient);
+        mTarget.setCanvas(null);
+        if (!antiAlias) {
+            ditherMask(bitmap, dial == DIAL_BURN_IN);
+        }
+
+        mDiskCache.save(name, key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Turns an ALPHA_8 mask into fully on and off pixels, which is all
+     * a low-bit screen can show anyway, and if asked, turns off every
+     * other pixel in a checkerboard, halving what burns in.
+     */
+    private static void ditherMask(Bitmap mask, boolean checkerboard) {
+        ByteBuffer buffer = ByteBuffer.allocate(mask.getByteCount());
+        mask.copyPixelsToBuffer(buffer);
+        byte[] pixels = buffer.array();
+        int rowBytes = mask.getRowBytes();
+        for (int y = 0; y < mask.getHeight(); y += 1) {
+            int row = y * rowBytes;
+            for (int x = 0; x < mask.getWidth(); x += 1) {
+                boolean on = (pixels[row + x] & 0xff) >= 0x80 && (!checkerboard || ((x + y) & 1) == 0);
+                pixels[row + x] = on ? (byte)0xff : 0;
+            }
+        }
+        buffer.rewind();
+        mask.copyPixelsFromBuffer(buffer);
+    }
+
+    /**
+     * Returns the typeface the dial's numerals are drawn in, loading it
+     * if need be, so that other parts of the watch face can share it.
+     */
+    Typeface getTypeface() {
+        ensureTypeface();
+        return mTypeface;
+    }
+
+    private void ensureTypeface() {
+        if (mTypeface != null) {
+            return;
+        }
+        mTypeface = Typeface.createFromAsset(
+                mContext.getResources().getAssets(),
+                "fonts/routed-gothic.ttf"
+        );
+        mHourTextPaint.setTypeface(mTypeface);
+        mBatteryTextPaint.setTypeface(mTypeface);
+    }
+
+    /**
+     * Returns what a dial bitmap depends on besides its variant: a cached
+     * dial is only used if its key matches.
+     */
+    private String cacheKey(int width, int height) {
+        return BuildConfig.VERSION_CODE + " " + width + "x" + height + " " + mBitmapConfig
+                + " " + Integer.toHexString(mBackgroundColor)
+                + " " + Integer.toHexString(mShadowColor)
+                + " " + Integer.toHexString(mTextColor)
+                + " " + Integer.toHexString(mHourTickColor)
+                + " " + Integer.toHexString(mMinuteTickColor)
+                + " " + Integer.toHexString(mBatteryTickColor);
+    }
+}
@@ -0,0 +1,140 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.graphics.Typeface;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Process;
+import android.util.Log;
+
+import com.webonastick.watchface.BitmapDiskCache;
+import com.webonastick.watchface.PixelStats;
+
+/**
+ * Builds dial bitmaps on a background thread, so that loading the
+ * typeface and rasterizing the dial never hold up input or a frame.
+ * Other bitmaps rendered on the main thread are saved to the disk
+ * cache from here too, and the typeface is loaded here for the
+ * complications.
+ *
+ * The {@link DialPainter} is only ever touched from the worker thread.
+ * Each finished dial is sent back as a {@link Result}, whose fields are
+ * final, through a message to the caller's handler; the message queue
+ * makes the bitmap's pixels visible to the thread that receives it.
+ */
+final class DialWorker {
+    private static final String TAG = "DialWorker";
+
+    /**
+     * A finished dial, or a failed one ({@link #bitmap} null).
+     * {@link #stats} is null unless the dial was measured.
+     */
+    static final class Result {
+        final int generation;
+        final int dial;
+        final Bitmap bitmap;
+        final long nanos;
+        final PixelStats stats;
+
+        Result(int generation, int dial, Bitmap bitmap, long nanos, PixelStats stats) {
+            this.generation = generation;
+            this.dial = dial;
+            this.bitmap = bitmap;
+            this.nanos = nanos;
+            this.stats = stats;
+        }
+    }
+
+    private final HandlerThread mThread;
+    private final Handler mHandler;
+    private final DialPainter mPainter;
+    private final Handler mReplyHandler;
+    private final int mReplyWhat;
+
+    /**
+     * @param painter      handed over to the worker thread; the caller
+     *                     must not use it any more.
+     * @param replyHandler receives a message with {@code replyWhat} and
+     *                     a {@link Result} for each request.
+     */
+    DialWorker(DialPainter painter, Handler replyHandler, int replyWhat) {
+        mPainter = painter;
+        mReplyHandler = replyHandler;
+        mReplyWhat = replyWhat;
+        mThread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        mThread.start();
+        mHandler = new Handler(mThread.getLooper());
+    }
+
+    /**
+     * Queues a dial to be built.  Requests are handled one at a time,
+     * in order.
+     *
+     * @param generation passed back in the {@link Result}, so that the
+     *                   caller can drop dials for a surface it no
+     *                   longer has.
+     * @param dial       one of the {@link DialPainter} DIAL_* variants.
+     * @param measure    whether to measure the dial's lit pixels too,
+     *                   which takes a pass over every pixel.
+     */
+    void request(final int generation, final int width, final int height, final int dial,
+                 final boolean measure) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                long startNanos = System.nanoTime();
+                Bitmap bitmap = null;
+                try {
+                    bitmap = mPainter.buildDial(width, height, dial);
+                } catch (OutOfMemoryError e) {
+                    Log.e(TAG, "cannot allocate " + DialPainter.dialName(dial) + ": " + e.getLocalizedMessage());
+                }
+                long nanos = System.nanoTime() - startNanos;
+                /* measured here rather than on the main thread; ambient masks are drawn in white */
+                PixelStats stats = bitmap == null || !measure ? null : PixelStats.measure(bitmap, Color.WHITE);
+                Result result = new Result(generation, dial, bitmap, nanos, stats);
+                mReplyHandler.obtainMessage(mReplyWhat, result).sendToTarget();
+            }
+        });
+    }
+
+    /**
+     * Queues loading the dial's typeface, which is then sent back
+     * through a message to the caller's handler with {@code replyWhat}.
+     * Typefaces are immutable, so the same one can be used on both
+     * threads.
+     */
+    void requestTypeface(final int replyWhat) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                Typeface typeface = mPainter.getTypeface();
+                mReplyHandler.obtainMessage(replyWhat, typeface).sendToTarget();
+            }
+        });
+    }
+
+    /**
+     * Queues a bitmap to be saved to the disk cache, after the requests
+     * queued so far.  The bitmap is handed over: the worker recycles it
+     * once saved, so the caller must pass a copy of one it still uses.
+     */
+    void save(final BitmapDiskCache cache, final String name, final String key, final Bitmap bitmap) {
+        mHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                cache.save(name, key, bitmap);
+                bitmap.recycle();
+            }
+        });
+    }
+
+    /**
+     * Stops the worker thread once the request being handled, if any,
+     * is done; requests still queued are dropped.
+     */
+    void quit() {
+        mThread.quit();
+    }
+}
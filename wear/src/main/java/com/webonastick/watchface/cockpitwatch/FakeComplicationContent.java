@@ -0,0 +1,80 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.app.PendingIntent;
+
+/**
+ * Complication content that never changes and needs no provider, for
+ * the golden frame check and anything else that has to render a
+ * complication the same way every time.
+ */
+final class FakeComplicationContent implements ComplicationContent {
+    private final String mText;
+    private final String mTitle;
+    private final boolean mRanged;
+    private final float mValue;
+    private final float mMinValue;
+    private final float mMaxValue;
+
+    FakeComplicationContent(String text, String title) {
+        mText = text;
+        mTitle = title;
+        mRanged = false;
+        mValue = 0f;
+        mMinValue = 0f;
+        mMaxValue = 0f;
+    }
+
+    FakeComplicationContent(String text, String title, float value, float minValue, float maxValue) {
+        mText = text;
+        mTitle = title;
+        mRanged = true;
+        mValue = value;
+        mMinValue = minValue;
+        mMaxValue = maxValue;
+    }
+
+    @Override
+    public boolean isActive(long timeMs) {
+        return true;
+    }
+
+    @Override
+    public CharSequence getText(long timeMs) {
+        return mText;
+    }
+
+    @Override
+    public CharSequence getTitle(long timeMs) {
+        return mTitle;
+    }
+
+    @Override
+    public boolean hasRange() {
+        return mRanged;
+    }
+
+    @Override
+    public float getValue() {
+        return mValue;
+    }
+
+    @Override
+    public float getMinValue() {
+        return mMinValue;
+    }
+
+    @Override
+    public float getMaxValue() {
+        return mMaxValue;
+    }
+
+    @Override
+    public long getNextChangeMs(long timeMs) {
+        return Long.MAX_VALUE;
+    }
+
+    @Override
+    public PendingIntent getTapAction() {
+        return null;
+    }
+}
@@ -0,0 +1,58 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.webonastick.watchface.cockpitwatch.core.HandBounds;
+
+/**
+ * Tracks the screen area a hand covered in the last frame, so that a
+ * frame only needs to repaint where hands have actually moved.
+ */
+final class HandDamage {
+    /* hand bounds, including stroke and shadow */
+    private final HandBounds mBounds = new HandBounds();
+
+    private final Rect mLast = new Rect();
+    private final Rect mCurrent = new Rect();
+    private float mLastRotation = Float.NaN;
+
+    /**
+     * @param margin extra room around the path for its stroke, its
+     *               shadow blur and its shadow offset.
+     */
+    void setBounds(Path path, float margin) {
+        RectF bounds = new RectF();
+        path.computeBounds(bounds, true);
+        mBounds.set(bounds.left - margin, bounds.top - margin, bounds.right + margin, bounds.bottom + margin);
+        reset();
+    }
+
+    /**
+     * Forgets the last frame, so the next {@link #addDamage} reports the hand as moved.
+     */
+    void reset() {
+        mLast.setEmpty();
+        mLastRotation = Float.NaN;
+    }
+
+    /**
+     * If the hand moved since the last call, adds to {@code damage} the
+     * area it covered then and the area it covers now.
+     *
+     * @return whether the hand moved.
+     */
+    boolean addDamage(float rotation, float centerX, float centerY, Rect damage) {
+        if (rotation == mLastRotation) {
+            return false;
+        }
+        mBounds.rotate(rotation, centerX, centerY);
+        mCurrent.set(mBounds.left, mBounds.top, mBounds.right, mBounds.bottom);
+        damage.union(mLast);
+        damage.union(mCurrent);
+        mLast.set(mCurrent);
+        mLastRotation = rotation;
+        return true;
+    }
+}
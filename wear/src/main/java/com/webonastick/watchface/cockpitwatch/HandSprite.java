@@ -0,0 +1,180 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import com.webonastick.watchface.BitmapDiskCache;
+
+/**
+ * A watch hand rasterized once, in its 12 o'clock position, so that
+ * each frame only has to draw it as a bitmap under a rotation.
+ *
+ * The body and highlight go into one ARGB bitmap.  The blurred shadow
+ * goes into a separate ALPHA_8 mask, tinted at draw time, because the
+ * shadow offset is in screen space and must not rotate with the hand.
+ */
+final class HandSprite {
+    /*
+     * goes into cache keys; bumped whenever rendering changes, so that
+     * sprites cached by an earlier build, with the same version code
+     * in development, are not used
+     */
+    static final int FORMAT = 2;
+
+    private final Bitmap mBody;
+    private final Bitmap mShadow;
+    private final float mLeft;
+    private final float mTop;
+
+    private final Matrix mMatrix = new Matrix();
+
+    private HandSprite(Bitmap body, Bitmap shadow, float left, float top) {
+        mBody = body;
+        mShadow = shadow;
+        mLeft = left;
+        mTop = top;
+    }
+
+    /**
+     * @param path1        hand body, in surface coordinates at 12 o'clock.
+     * @param paint1       paint for the body; its shadow layer, if any, is ignored.
+     * @param path2        hand highlight, drawn over the body.
+     * @param shadowRadius blur radius of the shadow, as for {@link Paint#setShadowLayer};
+     *                     0 for no shadow mask.
+     */
+    static HandSprite render(Path path1, Paint paint1, Path path2, Paint paint2, float shadowRadius) {
+        Rect bounds = spriteBounds(path1, paint1, paint2, shadowRadius);
+        int left   = bounds.left;
+        int top    = bounds.top;
+        int right  = bounds.right;
+        int bottom = bounds.bottom;
+
+        Bitmap body = Bitmap.createBitmap(right - left, bottom - top, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(body);
+        canvas.translate(-left, -top);
+        Paint bodyPaint = new Paint(paint1);
+        bodyPaint.clearShadowLayer();
+        canvas.drawPath(path1, bodyPaint);
+        canvas.drawPath(path2, paint2);
+
+        Bitmap shadow = null;
+        if (shadowRadius > 0f) {
+            shadow = Bitmap.createBitmap(right - left, bottom - top, Bitmap.Config.ALPHA_8);
+            /* a new canvas: from API 26 on, setBitmap() resets the matrix */
+            canvas = new Canvas(shadow);
+            canvas.translate(-left, -top);
+            Paint shadowPaint = new Paint(bodyPaint);
+            shadowPaint.setMaskFilter(new BlurMaskFilter(shadowRadius, BlurMaskFilter.Blur.NORMAL));
+            canvas.drawPath(path1, shadowPaint);
+        }
+
+        return new HandSprite(body, shadow, left, top);
+    }
+
+    /**
+     * Loads a sprite saved by {@link #save} with the same key, or
+     * returns null.  Each key gets files of its own, so that variants
+     * of a hand, such as muted and not, do not overwrite each other.  The paths and paints must be those the sprite was
+     * rendered with; they only serve to place it.
+     */
+    static HandSprite load(BitmapDiskCache cache, String name, String key,
+                           Path path1, Paint paint1, Paint paint2, float shadowRadius) {
+        Rect bounds = spriteBounds(path1, paint1, paint2, shadowRadius);
+        Bitmap body = cache.load(fileName(name, key, "body"), key);
+        if (body == null) {
+            return null;
+        }
+        Bitmap shadow = null;
+        if (shadowRadius > 0f) {
+            shadow = cache.load(fileName(name, key, "shadow"), key);
+            if (shadow == null) {
+                body.recycle();
+                return null;
+            }
+        }
+        if (body.getWidth() != bounds.width() || body.getHeight() != bounds.height()) {
+            recycle(body, shadow);
+            return null;
+        }
+        return new HandSprite(body, shadow, bounds.left, bounds.top);
+    }
+
+    /**
+     * Saves copies of the sprite's bitmaps from the worker's thread, so
+     * that the file writes do not hold up the frame that rendered it.
+     * A copy that cannot be allocated is not saved.
+     */
+    void save(DialWorker worker, BitmapDiskCache cache, String name, String key) {
+        save(worker, cache, fileName(name, key, "body"), key, mBody);
+        if (mShadow != null) {
+            save(worker, cache, fileName(name, key, "shadow"), key, mShadow);
+        }
+    }
+
+    private static void save(DialWorker worker, BitmapDiskCache cache, String fileName, String key,
+                             Bitmap bitmap) {
+        Bitmap copy;
+        try {
+            copy = bitmap.copy(bitmap.getConfig(), false);
+        } catch (OutOfMemoryError e) {
+            return;
+        }
+        if (copy != null) {
+            worker.save(cache, fileName, key, copy);
+        }
+    }
+
+    private static String fileName(String name, String key, String part) {
+        return name + "-" + Integer.toHexString(key.hashCode()) + "-" + part;
+    }
+
+    /**
+     * Returns the area a sprite covers at 12 o'clock, in whole pixels,
+     * with room for the stroke and the blurred shadow.
+     */
+    private static Rect spriteBounds(Path path1, Paint paint1, Paint paint2, float shadowRadius) {
+        RectF bounds = new RectF();
+        path1.computeBounds(bounds, true);
+        float margin = 2f * shadowRadius + Math.max(paint1.getStrokeWidth(), paint2.getStrokeWidth()) + 2f;
+        return new Rect((int)Math.floor(bounds.left - margin),
+                        (int)Math.floor(bounds.top - margin),
+                        (int)Math.ceil(bounds.right + margin),
+                        (int)Math.ceil(bounds.bottom + margin));
+    }
+
+    /**
+     * Draws the shadow, if requested and rendered, then the hand.
+     *
+     * @param shadowPaint  tints the shadow mask; null to skip the shadow.
+     * @param bitmapPaint  should have bitmap filtering on.
+     */
+    void draw(Canvas canvas, float rotation, float centerX, float centerY,
+              float shadowOffsetX, float shadowOffsetY, Paint shadowPaint, Paint bitmapPaint) {
+        if (shadowPaint != null && mShadow != null) {
+            mMatrix.setTranslate(mLeft, mTop);
+            mMatrix.postRotate(rotation, centerX, centerY);
+            mMatrix.postTranslate(shadowOffsetX, shadowOffsetY);
+            canvas.drawBitmap(mShadow, mMatrix, shadowPaint);
+        }
+        mMatrix.setTranslate(mLeft, mTop);
+        mMatrix.postRotate(rotation, centerX, centerY);
+        canvas.drawBitmap(mBody, mMatrix, bitmapPaint);
+    }
+
+    void recycle() {
+        recycle(mBody, mShadow);
+    }
+
+    private static void recycle(Bitmap body, Bitmap shadow) {
+        body.recycle();
+        if (shadow != null) {
+            shadow.recycle();
+        }
+    }
+}
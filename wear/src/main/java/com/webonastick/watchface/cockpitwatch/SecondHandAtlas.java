@@ -0,0 +1,188 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.graphics.Bitmap;
+import android.graphics.BlurMaskFilter;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.RectF;
+
+/**
+ * The second hand pre-rendered at a fixed number of positions around
+ * the dial, so that drawing it is a plain blit: no path rasterization
+ * and no rotation filtering.
+ *
+ * Only the first quadrant is rendered; the other three are drawn by
+ * rotating the canvas a multiple of 90 degrees, which maps pixels onto
+ * pixels.  Each frame holds three ALPHA_8 masks (blurred shadow, body,
+ * highlight), tinted at draw time, so color and mute-mode alpha
+ * changes do not require a rebuild.
+ */
+final class SecondHandAtlas {
+    private final int mPositions;
+    private final int mFramesPerQuadrant;
+
+    private final Bitmap[] mShadow;
+    private final Bitmap[] mBody;
+    private final Bitmap[] mHighlight;
+    private final int[] mLeft;
+    private final int[] mTop;
+
+    private final Paint mShadowPaint    = new Paint();
+    private final Paint mBodyPaint      = new Paint();
+    private final Paint mHighlightPaint = new Paint();
+
+    private SecondHandAtlas(int positions) {
+        mPositions = positions;
+        mFramesPerQuadrant = positions / 4;
+        mShadow    = new Bitmap[mFramesPerQuadrant];
+        mBody      = new Bitmap[mFramesPerQuadrant];
+        mHighlight = new Bitmap[mFramesPerQuadrant];
+        mLeft      = new int[mFramesPerQuadrant];
+        mTop       = new int[mFramesPerQuadrant];
+    }
+
+    /**
+     * Returns the number of bytes an atlas would take, without building it.
+     */
+    static long estimateBytes(int positions, Path path1, float centerX, float centerY, float margin) {
+        RectF bounds = new RectF();
+        RectF frame = new RectF();
+        Matrix matrix = new Matrix();
+        path1.computeBounds(bounds, true);
+        long bytes = 0;
+        for (int frameIndex = 0; frameIndex < positions / 4; frameIndex += 1) {
+            frameBounds(frameIndex, positions, bounds, centerX, centerY, margin, matrix, frame);
+            bytes += 3L * (long)frame.width() * (long)frame.height();
+        }
+        return bytes;
+    }
+
+    /**
+     * Renders the atlas, or returns null if it would take more than
+     * {@code budgetBytes}.
+     *
+     * @param positions    number of positions around the dial; a multiple of 4.
+     * @param paint1       paint for the body; only its style and anti-aliasing are used.
+     * @param paint2       paint for the highlight; likewise.
+     * @param shadowRadius blur radius of the shadow, as for {@link Paint#setShadowLayer}.
+     */
+    static SecondHandAtlas render(int positions, long budgetBytes,
+                                  Path path1, Paint paint1, Path path2, Paint paint2,
+                                  float centerX, float centerY, float shadowRadius) {
+        float margin = 2f * shadowRadius + Math.max(paint1.getStrokeWidth(), paint2.getStrokeWidth()) + 2f;
+        if (estimateBytes(positions, path1, centerX, centerY, margin) > budgetBytes) {
+            return null;
+        }
+
+        SecondHandAtlas atlas = new SecondHandAtlas(positions);
+
+        Paint bodyPaint = new Paint(paint1);
+        bodyPaint.clearShadowLayer();
+        bodyPaint.setColor(Color.BLACK);
+        Paint highlightPaint = new Paint(paint2);
+        highlightPaint.setColor(Color.BLACK);
+        Paint shadowPaint = new Paint(bodyPaint);
+        shadowPaint.setMaskFilter(new BlurMaskFilter(shadowRadius, BlurMaskFilter.Blur.NORMAL));
+
+        RectF bounds = new RectF();
+        RectF frame = new RectF();
+        Matrix matrix = new Matrix();
+        Canvas canvas = new Canvas();
+        path1.computeBounds(bounds, true);
+        try {
+            for (int frameIndex = 0; frameIndex < atlas.mFramesPerQuadrant; frameIndex += 1) {
+                frameBounds(frameIndex, positions, bounds, centerX, centerY, margin, matrix, frame);
+                int left = (int)frame.left;
+                int top  = (int)frame.top;
+                int width  = (int)frame.width();
+                int height = (int)frame.height();
+                atlas.mLeft[frameIndex] = left;
+                atlas.mTop[frameIndex]  = top;
+                atlas.mShadow[frameIndex]    = renderMask(canvas, width, height, left, top, matrix, path1, shadowPaint);
+                atlas.mBody[frameIndex]      = renderMask(canvas, width, height, left, top, matrix, path1, bodyPaint);
+                atlas.mHighlight[frameIndex] = renderMask(canvas, width, height, left, top, matrix, path2, highlightPaint);
+            }
+        } catch (OutOfMemoryError e) {
+            atlas.recycle();
+            throw e;
+        }
+        return atlas;
+    }
+
+    /**
+     * Computes the pixel-aligned bounds of a frame, and leaves its rotation in {@code matrix}.
+     */
+    private static void frameBounds(int frameIndex, int positions, RectF pathBounds,
+                                    float centerX, float centerY, float margin,
+                                    Matrix matrix, RectF frame) {
+        matrix.setRotate(360f * frameIndex / positions, centerX, centerY);
+        frame.set(pathBounds);
+        frame.inset(-margin, -margin);
+        matrix.mapRect(frame);
+        frame.set((float)Math.floor(frame.left), (float)Math.floor(frame.top),
+                (float)Math.ceil(frame.right), (float)Math.ceil(frame.bottom));
+    }
+
+    private static Bitmap renderMask(Canvas canvas, int width, int height, int left, int top,
+                                     Matrix matrix, Path path, Paint paint) {
+        Bitmap mask = Bitmap.createBitmap(width, height, Bitmap.Config.ALPHA_8);
+        canvas.setBitmap(mask);
+        canvas.save();
+        canvas.translate(-left, -top);
+        canvas.concat(matrix);
+        canvas.drawPath(path, paint);
+        canvas.restore();
+        return mask;
+    }
+
+    int getPositions() {
+        return mPositions;
+    }
+
+    /**
+     * @param position      0 (12 o'clock) to {@link #getPositions()} - 1, clockwise.
+     * @param shadowColor   tint of the shadow; 0 to skip the shadow.
+     */
+    void draw(Canvas canvas, int position, float centerX, float centerY,
+              float shadowOffsetX, float shadowOffsetY,
+              int shadowColor, int bodyColor, int highlightColor) {
+        int quadrant = position / mFramesPerQuadrant;
+        int frameIndex = position % mFramesPerQuadrant;
+        float left = mLeft[frameIndex];
+        float top  = mTop[frameIndex];
+
+        if (shadowColor != 0) {
+            mShadowPaint.setColor(shadowColor);
+            canvas.save();
+            canvas.translate(shadowOffsetX, shadowOffsetY);
+            canvas.rotate(90f * quadrant, centerX, centerY);
+            canvas.drawBitmap(mShadow[frameIndex], left, top, mShadowPaint);
+            canvas.restore();
+        }
+
+        mBodyPaint.setColor(bodyColor);
+        mHighlightPaint.setColor(highlightColor);
+        canvas.save();
+        canvas.rotate(90f * quadrant, centerX, centerY);
+        canvas.drawBitmap(mBody[frameIndex], left, top, mBodyPaint);
+        canvas.drawBitmap(mHighlight[frameIndex], left, top, mHighlightPaint);
+        canvas.restore();
+    }
+
+    void recycle() {
+        for (int frameIndex = 0; frameIndex < mFramesPerQuadrant; frameIndex += 1) {
+            if (mShadow[frameIndex] != null) {
+                mShadow[frameIndex].recycle();
+            }
+            if (mBody[frameIndex] != null) {
+                mBody[frameIndex].recycle();
+            }
+            if (mHighlight[frameIndex] != null) {
+                mHighlight[frameIndex].recycle();
+            }
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Size and position of the dial, the battery gauge, the complication
+ * and every hand, for a given surface size.
+ *
+ * Proportions are fractions of the dial radius or diameter, so the
+ * watch face scales with the screen.
+ */
+public final class DialGeometry {
+    public static final float TICK_OUTER_RADIUS        = 0.97f;
+    public static final float HOUR_TICK_INNER_RADIUS   = 0.89f;
+    public static final float MINUTE_TICK_INNER_RADIUS = 0.92f;
+
+    public static final float HOUR_HAND_LENGTH    = 0.5f;
+    public static final float MINUTE_HAND_LENGTH  = (TICK_OUTER_RADIUS + MINUTE_TICK_INNER_RADIUS) / 2f;
+    public static final float SECOND_HAND_LENGTH  = TICK_OUTER_RADIUS;
+    public static final float BATTERY_HAND_LENGTH = (1 + HOUR_TICK_INNER_RADIUS) / 2f;
+
+    public static final float HOUR_HAND_WIDTH    = 0.04f;
+    public static final float MINUTE_HAND_WIDTH  = 0.04f;
+    public static final float SECOND_HAND_WIDTH  = 0.015f;
+    public static final float BATTERY_HAND_WIDTH = 0.02f;
+
+    /* room between the complication and the numerals above it, and the hub below it */
+    public static final float COMPLICATION_MARGIN        = 0.01f;
+    public static final float COMPLICATION_HUB_CLEARANCE = 0.1f;
+
+    public float width;
+    public float height;
+    public float radius;
+    public float diameter;
+    public float centerX;
+    public float centerY;
+
+    public float batteryCenterX;
+    public float batteryCenterY;
+    public float batteryRadius;
+
+    /*
+     * the complication sits opposite the battery gauge, in the upper
+     * half, between the "12" and "24" numerals and the hands' hub
+     */
+    public float complicationCenterX;
+    public float complicationCenterY;
+    public float complicationRadius;
+
+    public float hourHandLength;
+    public float minuteHandLength;
+    public float secondHandLength;
+    public float batteryHandLength;
+
+    public float hourHandWidth;
+    public float minuteHandWidth;
+    public float secondHandWidth;
+    public float batteryHandWidth;
+
+    public final HandShape hourHand    = new HandShape(1f / 3f);
+    public final HandShape minuteHand  = new HandShape(1f / 4f);
+    public final HandShape secondHand  = new HandShape(1f / 4f);
+    public final HandShape batteryHand = new HandShape(1f / 3f);
+
+    public void update(int width, int height) {
+        /*
+         * Find the coordinates of the center point on the screen, and ignore the window
+         * insets, so that, on round watches with a "chin", the watch face is centered on the
+         * entire screen, not just the usable portion.
+         */
+        this.width    = width;
+        this.height   = height;
+        radius   = Math.min(width / 2f, height / 2f);
+        diameter = Math.min(width, height);
+        centerX  = width / 2f;
+        centerY  = height / 2f;
+
+        batteryCenterX    = width / 2f;
+        batteryCenterY    = height * 0.72f;
+        batteryRadius     = height * 0.16f;
+
+        /*
+         * Text is never taller than its size, whatever the font, so the
+         * numerals are known to end above this without measuring them;
+         * see DialLayout for how they are stacked.
+         */
+        float numeralsBottom = centerY - radius * DialLayout.TEXT_OUTER_RADIUS
+                + diameter * (DialLayout.HOUR_TEXT_SIZE_PERCENT
+                + DialLayout.HOUR24_TEXT_SIZE_OFFSET_PERCENT
+                + DialLayout.HOUR24_TEXT_SIZE_PERCENT) / 100;
+        float complicationTop    = numeralsBottom + diameter * COMPLICATION_MARGIN;
+        float complicationBottom = centerY - radius * COMPLICATION_HUB_CLEARANCE;
+        complicationCenterX = width / 2f;
+        complicationRadius  = (complicationBottom - complicationTop) / 2f;
+        complicationCenterY = complicationTop + complicationRadius;
+
+        hourHandLength    = radius * HOUR_HAND_LENGTH;
+        minuteHandLength  = radius * MINUTE_HAND_LENGTH;
+        secondHandLength  = radius * SECOND_HAND_LENGTH;
+        batteryHandLength = batteryRadius * BATTERY_HAND_LENGTH;
+
+        hourHandWidth    = diameter * HOUR_HAND_WIDTH;
+        minuteHandWidth  = diameter * MINUTE_HAND_WIDTH;
+        secondHandWidth  = diameter * SECOND_HAND_WIDTH;
+        batteryHandWidth = diameter * BATTERY_HAND_WIDTH;
+
+        hourHand.update(centerX, centerY, hourHandLength, hourHandWidth);
+        minuteHand.update(centerX, centerY, minuteHandLength, minuteHandWidth);
+        secondHand.update(centerX, centerY, secondHandLength, secondHandWidth);
+        batteryHand.update(batteryCenterX, batteryCenterY, batteryHandLength, batteryHandWidth);
+    }
+}
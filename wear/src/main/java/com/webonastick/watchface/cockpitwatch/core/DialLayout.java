@@ -0,0 +1,140 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Cached positions of every label drawn on the dial: hour numerals,
+ * 24-hour numerals and battery gauge labels.
+ *
+ * Positions are text baselines for horizontally centered text, without
+ * any shadow offset.  They are only valid for the surface size and font
+ * they were computed with; see {@link #update}.
+ */
+public final class DialLayout {
+
+    /**
+     * Dial labels, built once so that drawing them never allocates.
+     */
+    public static final String[] HOUR_STRINGS = {
+            "12", "1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"
+    };
+    public static final String[] HOUR24_STRINGS = {
+            "24", "13", "14", "15", "16", "17", "18", "19", "20", "21", "22", "23"
+    };
+    public static final String[] BATTERY_STRINGS = {
+            "0", "10", "20", "30", "40", "50", "60", "70", "80", "90", "100"
+    };
+    public static final String BATTERY_LABEL = "BATTERY";
+
+    public static final float TEXT_OUTER_RADIUS = 0.84f;
+
+    public static final float HOUR_TEXT_SIZE_PERCENT          = 12f;
+    public static final float HOUR24_TEXT_SIZE_PERCENT        = 4.5f;
+    public static final float HOUR24_TEXT_SIZE_OFFSET_PERCENT = 2f;
+    public static final float BATTERY_TEXT_SIZE_PERCENT       = 4.5f;
+
+    /* indexed by hour % 12 */
+    public final float[] hourX = new float[12];
+    public final float[] hourY = new float[12];
+
+    /* indexed by hour % 12; only entries 0, 3, 6 and 9 are used */
+    public final float[] hour24X = new float[12];
+    public final float[] hour24Y = new float[12];
+
+    /* indexed by battery tick / 10; only entries 0, 5 and 10 are used */
+    public final float[] batteryLabelX = new float[11];
+    public final float[] batteryLabelY = new float[11];
+
+    public float batteryCaptionX;
+    public float batteryCaptionY;
+
+    public float hourTextSize;
+    public float hour24TextSize;
+    public float batteryTextSize;
+
+    private int mWidth = -1;
+    private int mHeight = -1;
+    private Object mFont = null;
+
+    /* scratch text sizes: width, height */
+    private final float[] mTextSize   = new float[2];
+    private final float[] mTextSize24 = new float[2];
+
+    public boolean isValidFor(int width, int height, Object font) {
+        return mWidth == width && mHeight == height && mFont == font;
+    }
+
+    public void invalidate() {
+        mWidth = -1;
+        mHeight = -1;
+        mFont = null;
+    }
+
+    /**
+     * Computes the position of every label, unless the layout already
+     * matches the given surface size and font.
+     *
+     * @param font whatever identifies the font the measurer uses; only
+     *             compared by identity.
+     */
+    public void update(DialGeometry geometry, TextMeasurer measurer, int width, int height, Object font) {
+        if (isValidFor(width, height, font)) {
+            return;
+        }
+
+        float diameter = geometry.diameter;
+        float radius   = geometry.radius;
+
+        hourTextSize    = diameter * HOUR_TEXT_SIZE_PERCENT / 100;
+        hour24TextSize  = diameter * HOUR24_TEXT_SIZE_PERCENT / 100;
+        batteryTextSize = diameter * BATTERY_TEXT_SIZE_PERCENT / 100;
+
+        float[] textSize   = mTextSize;
+        float[] textSize24 = mTextSize24;
+
+        for (int hour = 1; hour <= 12; hour += 1) {
+            int index = hour % 12;
+            float sin = TrigTable.sin(TrigTable.hourTick(hour));
+            float cos = TrigTable.cos(TrigTable.hourTick(hour));
+
+            measurer.measureText(DrawTarget.HOUR_TEXT, hourTextSize, HOUR_STRINGS[index], textSize);
+            float x = geometry.centerX + sin * TEXT_OUTER_RADIUS * radius;
+            float y = geometry.centerY - cos * TEXT_OUTER_RADIUS * radius;
+            x = x - sin * textSize[0] / 2;
+            y = y + cos * textSize[1] / 2;
+            hourX[index] = x;
+            hourY[index] = y + textSize[1] / 2f;
+
+            if (hour % 3 == 0) {
+                measurer.measureText(DrawTarget.HOUR_TEXT, hour24TextSize, HOUR24_STRINGS[index], textSize24);
+                float offset = diameter * HOUR24_TEXT_SIZE_OFFSET_PERCENT / 100;
+                if (hour > 9 || hour < 3) {
+                    y = y + textSize[1] / 2f + offset + textSize24[1] / 2f;
+                } else if (hour == 9 || hour == 3) {
+                    x = x - sin * textSize[0] / 2
+                            - sin * offset
+                            - sin * textSize24[0] / 2;
+                } else {
+                    y = y - textSize[1] / 2f - offset - textSize24[1] / 2f;
+                }
+                hour24X[index] = x;
+                hour24Y[index] = y + textSize24[1] / 2f;
+            }
+        }
+
+        /* battery labels stay upright at the end of their (rotated) tick */
+        float labelRadius = geometry.batteryRadius * ((1f + DialGeometry.HOUR_TICK_INNER_RADIUS) / 2);
+        for (int tick = 0; tick <= 100; tick += 50) {
+            int index = tick / 10;
+            int dialTick = TickGeometry.batteryDialTick(tick);
+            measurer.measureText(DrawTarget.BATTERY_TEXT, batteryTextSize, BATTERY_STRINGS[index], textSize);
+            batteryLabelX[index] = geometry.batteryCenterX + TrigTable.sin(dialTick) * labelRadius;
+            batteryLabelY[index] = geometry.batteryCenterY - TrigTable.cos(dialTick) * labelRadius
+                    + textSize[1] * 0.4f;
+        }
+        batteryCaptionX = geometry.batteryCenterX;
+        batteryCaptionY = geometry.batteryCenterY - geometry.batteryRadius / 3 + 0.5f * batteryTextSize;
+
+        mWidth = width;
+        mHeight = height;
+        mFont = font;
+    }
+}
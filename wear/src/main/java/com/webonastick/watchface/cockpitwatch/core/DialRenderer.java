@@ -0,0 +1,128 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Draws the static dial (ticks, hour numerals, battery gauge labels)
+ * onto a {@link DrawTarget}, and decides which color each element gets.
+ *
+ * Shadows are copies of the dial elements drawn a few pixels lower,
+ * underneath them.
+ */
+public final class DialRenderer {
+    public static final int TICK_NUMBER_SHADOW = 2;
+
+    private static final int BLACK = 0xff000000;
+    private static final int WHITE = 0xffffffff;
+
+    private final TickGeometry mTicks;
+    private final DialLayout mLayout;
+
+    private int mShadowColor;
+    private int mTextColor;
+    private int mHourTickColor;
+    private int mMinuteTickColor;
+    private int mBatteryTickColor;
+
+    public DialRenderer(TickGeometry ticks, DialLayout layout) {
+        mTicks = ticks;
+        mLayout = layout;
+    }
+
+    /**
+     * Colors are packed ARGB, 0xAARRGGBB.
+     */
+    public void setColors(int shadowColor, int textColor,
+                          int hourTickColor, int minuteTickColor, int batteryTickColor) {
+        mShadowColor      = shadowColor;
+        mTextColor        = textColor;
+        mHourTickColor    = hourTickColor;
+        mMinuteTickColor  = minuteTickColor;
+        mBatteryTickColor = batteryTickColor;
+    }
+
+    /**
+     * Draws the whole dial, in order: tick shadows, ticks, numeral
+     * shadows, numerals.
+     *
+     * @param shadows whether to draw shadows at all.
+     * @param ambient whether the dial is for ambient mode.
+     */
+    public void drawDial(DrawTarget target, boolean shadows, boolean ambient) {
+        if (shadows) {
+            drawTicks(target, true, ambient);
+        }
+        drawTicks(target, false, ambient);
+        if (shadows) {
+            drawHourNumbers(target, true);
+        }
+        drawHourNumbers(target, false);
+    }
+
+    public void drawTicks(DrawTarget target, boolean shadow, boolean ambient) {
+        if (shadow) {
+            for (int dy = 1; dy <= TICK_NUMBER_SHADOW; dy += 1) {
+                drawTicks(target, true, ambient, dy);
+            }
+        } else {
+            drawTicks(target, false, ambient, 0);
+        }
+    }
+
+    public void drawHourNumbers(DrawTarget target, boolean shadow) {
+        if (shadow) {
+            for (int dy = 1; dy <= TICK_NUMBER_SHADOW; dy += 1) {
+                drawHourNumbers(target, true, dy);
+            }
+        } else {
+            drawHourNumbers(target, false, 0);
+        }
+    }
+
+    private void drawTicks(DrawTarget target, boolean shadow, boolean ambient, int dy) {
+        drawClockTicks(target, shadow, dy);
+        drawBatteryTicks(target, shadow, ambient, dy);
+    }
+
+    private void drawClockTicks(DrawTarget target, boolean shadow, int dy) {
+        target.save();
+        target.translate(0f, dy);
+        target.drawLines(DrawTarget.HOUR_TICKS, shadow ? BLACK : mHourTickColor, mTicks.hourPoints);
+        target.drawLines(DrawTarget.MINUTE_TICKS, shadow ? BLACK : mMinuteTickColor, mTicks.minutePoints);
+        target.restore();
+    }
+
+    private void drawBatteryTicks(DrawTarget target, boolean shadow, boolean ambient, int dy) {
+        int tickColor = shadow ? mShadowColor : mBatteryTickColor;
+        int textColor = ambient ? WHITE : tickColor;
+        DialLayout layout = mLayout;
+
+        target.save();
+        target.translate(0f, dy);
+        target.drawLines(DrawTarget.BATTERY_TICKS, tickColor, mTicks.batteryPoints);
+        for (int tick = 0; tick <= 100; tick += 50) {
+            target.drawText(DrawTarget.BATTERY_TEXT, textColor, layout.batteryTextSize,
+                    DialLayout.BATTERY_STRINGS[tick / 10],
+                    layout.batteryLabelX[tick / 10],
+                    layout.batteryLabelY[tick / 10]);
+        }
+        target.drawText(DrawTarget.BATTERY_TEXT, textColor, layout.batteryTextSize,
+                DialLayout.BATTERY_LABEL, layout.batteryCaptionX, layout.batteryCaptionY);
+        target.restore();
+    }
+
+    private void drawHourNumbers(DrawTarget target, boolean shadow, int dy) {
+        int color = shadow ? mShadowColor : mTextColor;
+        DialLayout layout = mLayout;
+
+        target.save();
+        target.translate(0f, dy);
+        for (int index = 0; index < 12; index += 1) {
+            target.drawText(DrawTarget.HOUR_TEXT, color, layout.hourTextSize,
+                    DialLayout.HOUR_STRINGS[index], layout.hourX[index], layout.hourY[index]);
+        }
+        for (int index = 0; index < 12; index += 3) {
+            target.drawText(DrawTarget.HOUR_TEXT, color, layout.hour24TextSize,
+                    DialLayout.HOUR24_STRINGS[index], layout.hour24X[index], layout.hour24Y[index]);
+        }
+        target.restore();
+    }
+}
@@ -0,0 +1,36 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Where {@link DialRenderer} sends its draw commands: a canvas on the
+ * device, or a recorder off it.
+ *
+ * Commands name the dial element they draw rather than a paint; the
+ * target keeps whatever stroke, typeface and anti-aliasing settings go
+ * with each element, and takes the color from the command.
+ */
+public interface DrawTarget extends TextMeasurer {
+    int HOUR_TICKS    = 0;
+    int MINUTE_TICKS  = 1;
+    int BATTERY_TICKS = 2;
+    int HOUR_TEXT     = 3;
+    int BATTERY_TEXT  = 4;
+
+    int ELEMENTS = 5;
+
+    void save();
+
+    void translate(float dx, float dy);
+
+    void restore();
+
+    /**
+     * @param points four floats per line: x0, y0, x1, y1.
+     */
+    void drawLines(int element, int color, float[] points);
+
+    /**
+     * @param x horizontal center of the text.
+     * @param y baseline of the text.
+     */
+    void drawText(int element, int color, float textSize, String text, float x, float y);
+}
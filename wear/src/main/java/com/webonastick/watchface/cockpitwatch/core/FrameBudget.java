@@ -0,0 +1,83 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Decides which pieces of optional work fit in a frame's time budget,
+ * from how long each took the last times it ran.
+ *
+ * A piece runs only if the time already spent in the frame plus its
+ * estimated cost stays within the budget, so a slow piece is put off
+ * before it starts rather than noticed after.  A piece that never fits
+ * would never run: once it has been put off {@link #MAX_DEFERRALS}
+ * frames in a row, it runs anyway, provided nothing else has run in
+ * that frame yet.
+ *
+ * Times are passed in rather than read, so that this can be driven by
+ * a fake clock.
+ */
+public final class FrameBudget {
+    public static final int MAX_DEFERRALS = 10;
+
+    /* weight of the latest run in the moving average of each piece's cost */
+    private static final float COST_SMOOTHING = 0.25f;
+
+    private final long[] mCostNanos;
+    private final int[] mDeferrals;
+    private long mBudgetNanos;
+
+    private long mFrameStartNanos;
+    private boolean mRanThisFrame;
+
+    /**
+     * @param pieces number of pieces of work, numbered from 0.  Their
+     *               cost is unknown, and taken as 0, until they first run.
+     */
+    public FrameBudget(int pieces, long budgetNanos) {
+        mCostNanos = new long[pieces];
+        mDeferrals = new int[pieces];
+        mBudgetNanos = budgetNanos;
+    }
+
+    public void setBudgetNanos(long budgetNanos) {
+        mBudgetNanos = budgetNanos;
+    }
+
+    public long getBudgetNanos() {
+        return mBudgetNanos;
+    }
+
+    /**
+     * Returns the estimated cost of a piece of work.
+     */
+    public long getCostNanos(int piece) {
+        return mCostNanos[piece];
+    }
+
+    public void beginFrame(long nowNanos) {
+        mFrameStartNanos = nowNanos;
+        mRanThisFrame = false;
+    }
+
+    /**
+     * Returns whether a piece of work may run now; if so, the caller
+     * runs it and reports how long it took through {@link #finish}.
+     */
+    public boolean tryStart(int piece, long nowNanos) {
+        boolean fits = nowNanos - mFrameStartNanos + mCostNanos[piece] <= mBudgetNanos;
+        boolean overdue = mDeferrals[piece] >= MAX_DEFERRALS && !mRanThisFrame;
+        if (!fits && !overdue) {
+            mDeferrals[piece] += 1;
+            return false;
+        }
+        mDeferrals[piece] = 0;
+        mRanThisFrame = true;
+        return true;
+    }
+
+    public void finish(int piece, long nanos) {
+        if (mCostNanos[piece] == 0) {
+            mCostNanos[piece] = nanos;
+        } else {
+            mCostNanos[piece] += (long)((nanos - mCostNanos[piece]) * COST_SMOOTHING);
+        }
+    }
+}
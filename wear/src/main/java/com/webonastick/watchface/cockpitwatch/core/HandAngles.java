@@ -0,0 +1,72 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Time-to-angle and battery-to-angle math for the hands.  Angles are
+ * in degrees, clockwise from 12 o'clock.
+ */
+public final class HandAngles {
+
+    /* where the battery hand rests when the level is unknown or out of range */
+    public static final float BATTERY_UNKNOWN = -25f;
+    public static final float BATTERY_OVERFLOW = 125f;
+
+    private HandAngles() {
+    }
+
+    public static float hourAngle(int hours, int minutes, int seconds, int millis) {
+        return (hours + minuteFraction(minutes, seconds, millis) / 60f) * 30f;
+    }
+
+    public static float minuteAngle(int minutes, int seconds, int millis) {
+        return minuteFraction(minutes, seconds, millis) * 6f;
+    }
+
+    public static float secondAngle(int seconds, int millis) {
+        return secondFraction(seconds, millis) * 6f;
+    }
+
+    /**
+     * Returns the position of the second hand as a fraction of the
+     * minute, from 0 to 60.
+     */
+    public static float secondFraction(int seconds, int millis) {
+        return (float)seconds + (float)millis / 1000f;
+    }
+
+    private static float minuteFraction(int minutes, int seconds, int millis) {
+        return (float)minutes + secondFraction(seconds, millis) / 60f;
+    }
+
+    /**
+     * @param percentage 0 to 100, or negative if unknown.  Levels off
+     *                   the gauge are shown just past its ends.
+     * @return -90 (9 o'clock) at 0%, to 90 (3 o'clock) at 100%.
+     */
+    public static float batteryAngle(float percentage) {
+        if (percentage < 0f) {
+            percentage = BATTERY_UNKNOWN;
+        } else if (percentage > 100f) {
+            percentage = BATTERY_OVERFLOW;
+        }
+        return -90f + 180f * percentage / 100f;
+    }
+
+    /**
+     * Returns the angle step at which the tip of a hand of the given
+     * length moves by {@code pixels}.
+     */
+    public static float quantum(float pixels, float length) {
+        return (float)Math.toDegrees(pixels / length);
+    }
+
+    /**
+     * Rounds an angle to a multiple of {@code quantum}; leaves it alone
+     * if {@code quantum} is not positive.
+     */
+    public static float quantize(float angle, float quantum) {
+        if (quantum <= 0f) {
+            return angle;
+        }
+        return Math.round(angle / quantum) * quantum;
+    }
+}
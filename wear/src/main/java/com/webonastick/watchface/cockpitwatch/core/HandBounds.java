@@ -0,0 +1,53 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * The screen area a hand covers at a given rotation, in whole pixels:
+ * the bounding box of its 12 o'clock bounds rotated about the hand's
+ * center, as {@code Matrix.mapRect} then {@code RectF.roundOut} would
+ * give it, without going through either on every frame.
+ */
+public final class HandBounds {
+    public int left;
+    public int top;
+    public int right;
+    public int bottom;
+
+    /* bounds at 12 o'clock */
+    private float mLeft;
+    private float mTop;
+    private float mRight;
+    private float mBottom;
+
+    public void set(float left, float top, float right, float bottom) {
+        mLeft = left;
+        mTop = top;
+        mRight = right;
+        mBottom = bottom;
+    }
+
+    /**
+     * Sets {@link #left}, {@link #top}, {@link #right} and
+     * {@link #bottom} for a hand turned clockwise by {@code rotation}
+     * degrees about ({@code centerX}, {@code centerY}).
+     */
+    public void rotate(float rotation, float centerX, float centerY) {
+        double radians = Math.toRadians(rotation);
+        float sin = (float)Math.sin(radians);
+        float cos = (float)Math.cos(radians);
+        float x0 = mLeft - centerX;
+        float x1 = mRight - centerX;
+        float y0 = mTop - centerY;
+        float y1 = mBottom - centerY;
+
+        /* in screen coordinates, y down: x' = x cos - y sin, y' = x sin + y cos */
+        float minX = Math.min(x0 * cos, x1 * cos) - Math.max(y0 * sin, y1 * sin);
+        float maxX = Math.max(x0 * cos, x1 * cos) - Math.min(y0 * sin, y1 * sin);
+        float minY = Math.min(x0 * sin, x1 * sin) + Math.min(y0 * cos, y1 * cos);
+        float maxY = Math.max(x0 * sin, x1 * sin) + Math.max(y0 * cos, y1 * cos);
+
+        left   = (int)Math.floor(centerX + minX);
+        top    = (int)Math.floor(centerY + minY);
+        right  = (int)Math.ceil(centerX + maxX);
+        bottom = (int)Math.ceil(centerY + maxY);
+    }
+}
@@ -0,0 +1,45 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * The outline of one hand, pointing at 12 o'clock: a tapered polygon
+ * from the pivot to the tip, plus a round hub over the pivot.
+ *
+ * The highlight is the part of the hand above {@link #highlightY}.
+ */
+public final class HandShape {
+    public static final int OUTLINE_POINTS = 5;
+
+    /* x, y pairs: pivot left, shoulder left, tip, shoulder right, pivot right */
+    public final float[] outline = new float[2 * OUTLINE_POINTS];
+
+    public float centerX;
+    public float centerY;
+    public float hubRadius;
+    public float highlightY;
+
+    /* fraction of the length, from the pivot, below which the hand is not highlighted */
+    private final float mHighlightFraction;
+
+    public HandShape(float highlightFraction) {
+        mHighlightFraction = highlightFraction;
+    }
+
+    public void update(float centerX, float centerY, float length, float width) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+
+        outline[0] = centerX - width / 3;
+        outline[1] = centerY;
+        outline[2] = centerX - width / 2;
+        outline[3] = centerY - length * 0.75f;
+        outline[4] = centerX;
+        outline[5] = centerY - length;
+        outline[6] = centerX + width / 2;
+        outline[7] = centerY - length * 0.75f;
+        outline[8] = centerX + width / 3;
+        outline[9] = centerY;
+
+        hubRadius  = width / 1.5f;
+        highlightY = centerY - length * mHighlightFraction;
+    }
+}
@@ -0,0 +1,128 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * A headless {@link DrawTarget}: draws nothing, and keeps a count of
+ * the commands it receives and a checksum of their arguments, so that
+ * two versions of the rendering code can be compared for output as
+ * well as for speed.
+ *
+ * Text is measured as if every character were {@link #CHAR_WIDTH} by
+ * {@link #CHAR_HEIGHT} times the text size, which is close enough for
+ * layout code to be exercised, not for pixel positions to match a
+ * real font.
+ */
+public final class RecordingDrawTarget implements DrawTarget {
+    public static final float CHAR_WIDTH  = 0.55f;
+    public static final float CHAR_HEIGHT = 0.7f;
+
+    private final StringBuilder mLog;
+
+    private int mCommands = 0;
+    private long mChecksum = 0;
+    private float mOffsetX = 0f;
+    private float mOffsetY = 0f;
+    private final float[] mOffsetStack = new float[2 * 16];
+    private int mDepth = 0;
+
+    /**
+     * @param log whether to also keep a human-readable list of every
+     *            command, for {@link #toString()}.  Allocates.
+     */
+    public RecordingDrawTarget(boolean log) {
+        mLog = log ? new StringBuilder() : null;
+    }
+
+    public int getCommands() {
+        return mCommands;
+    }
+
+    /**
+     * Returns a hash of every command and its arguments, translation
+     * included, since the last {@link #reset()}.
+     */
+    public long getChecksum() {
+        return mChecksum;
+    }
+
+    public void reset() {
+        mCommands = 0;
+        mChecksum = 0;
+        mOffsetX = 0f;
+        mOffsetY = 0f;
+        mDepth = 0;
+        if (mLog != null) {
+            mLog.setLength(0);
+        }
+    }
+
+    @Override
+    public void save() {
+        mOffsetStack[2 * mDepth]     = mOffsetX;
+        mOffsetStack[2 * mDepth + 1] = mOffsetY;
+        mDepth += 1;
+    }
+
+    @Override
+    public void translate(float dx, float dy) {
+        mOffsetX += dx;
+        mOffsetY += dy;
+    }
+
+    @Override
+    public void restore() {
+        mDepth -= 1;
+        mOffsetX = mOffsetStack[2 * mDepth];
+        mOffsetY = mOffsetStack[2 * mDepth + 1];
+    }
+
+    @Override
+    public void drawLines(int element, int color, float[] points) {
+        mCommands += 1;
+        hash(element);
+        hash(color);
+        for (int i = 0; i + 1 < points.length; i += 2) {
+            hash(points[i] + mOffsetX);
+            hash(points[i + 1] + mOffsetY);
+        }
+        if (mLog != null) {
+            mLog.append("lines ").append(element).append(' ').append(Integer.toHexString(color))
+                    .append(' ').append(points.length / 4).append('\n');
+        }
+    }
+
+    @Override
+    public void drawText(int element, int color, float textSize, String text, float x, float y) {
+        mCommands += 1;
+        hash(element);
+        hash(color);
+        hash(textSize);
+        hash(text.hashCode());
+        hash(x + mOffsetX);
+        hash(y + mOffsetY);
+        if (mLog != null) {
+            mLog.append("text ").append(element).append(' ').append(Integer.toHexString(color))
+                    .append(' ').append(textSize).append(" \"").append(text).append("\" ")
+                    .append(x + mOffsetX).append(' ').append(y + mOffsetY).append('\n');
+        }
+    }
+
+    @Override
+    public void measureText(int element, float textSize, String text, float[] size) {
+        size[0] = Math.round(text.length() * CHAR_WIDTH * textSize);
+        size[1] = Math.round(CHAR_HEIGHT * textSize);
+    }
+
+    private void hash(float value) {
+        hash(Float.floatToIntBits(value));
+    }
+
+    private void hash(int value) {
+        mChecksum = mChecksum * 31 + value;
+    }
+
+    @Override
+    public String toString() {
+        String summary = "commands " + mCommands + ", checksum " + Long.toHexString(mChecksum);
+        return mLog == null ? summary : summary + "\n" + mLog;
+    }
+}
@@ -0,0 +1,15 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Measures dial labels, for {@link DialLayout}.
+ */
+public interface TextMeasurer {
+
+    /**
+     * Stores the width and the height of the ink of {@code text} at
+     * {@code size[0]} and {@code size[1]}.
+     *
+     * @param element one of the text elements of {@link DrawTarget}.
+     */
+    void measureText(int element, float textSize, String text, float[] size);
+}
@@ -0,0 +1,81 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Endpoints of every tick mark on the dial and on the battery gauge,
+ * laid out for {@link DrawTarget#drawLines} (four floats per line), so
+ * that each class of tick is drawn with a single call.  Shadow copies
+ * are drawn from the same buffers under a translation.
+ */
+public final class TickGeometry {
+    public static final int HOUR_TICKS    = 12;
+    public static final int MINUTE_TICKS  = TrigTable.TICKS - HOUR_TICKS;
+
+    /* battery ticks every 10%, except at 0, 50 and 100 which are labels */
+    public static final int BATTERY_TICKS = 8;
+
+    public final float[] hourPoints    = new float[4 * HOUR_TICKS];
+    public final float[] minutePoints  = new float[4 * MINUTE_TICKS];
+    public final float[] batteryPoints = new float[4 * BATTERY_TICKS];
+
+    /**
+     * Lays out every tick for the given dial.
+     */
+    public void build(DialGeometry geometry) {
+        buildClockTicks(geometry.centerX, geometry.centerY,
+                geometry.radius * DialGeometry.TICK_OUTER_RADIUS,
+                geometry.radius * DialGeometry.HOUR_TICK_INNER_RADIUS,
+                geometry.radius * DialGeometry.MINUTE_TICK_INNER_RADIUS);
+        buildBatteryTicks(geometry.batteryCenterX, geometry.batteryCenterY, geometry.batteryRadius,
+                geometry.batteryRadius * DialGeometry.HOUR_TICK_INNER_RADIUS);
+    }
+
+    public void buildClockTicks(float centerX, float centerY,
+                         float outerRadius, float hourInnerRadius, float minuteInnerRadius) {
+        int hourIndex = 0;
+        int minuteIndex = 0;
+        for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+            if (tick % TrigTable.TICKS_PER_HOUR == 0) {
+                hourIndex = putLine(hourPoints, hourIndex, centerX, centerY, tick,
+                        outerRadius, hourInnerRadius);
+            } else {
+                minuteIndex = putLine(minutePoints, minuteIndex, centerX, centerY, tick,
+                        outerRadius, minuteInnerRadius);
+            }
+        }
+    }
+
+    public void buildBatteryTicks(float centerX, float centerY, float outerRadius, float innerRadius) {
+        int index = 0;
+        for (int tick = 0; tick <= 100; tick += 10) {
+            if (tick == 0 || tick == 50 || tick == 100) {
+                continue;
+            }
+            index = putLine(batteryPoints, index, centerX, centerY, batteryDialTick(tick),
+                    outerRadius, innerRadius);
+        }
+    }
+
+    /**
+     * Returns the {@link TrigTable} tick at which the battery gauge
+     * shows the given percentage: 0 at 9 o'clock, 100 at 3 o'clock.
+     * Only exact for multiples of 10 percent.
+     */
+    public static int batteryDialTick(int percentage) {
+        return -TrigTable.TICKS / 4 + percentage * (TrigTable.TICKS / 2) / 100;
+    }
+
+    /**
+     * Stores a radial line segment at {@code points[index]}, and returns
+     * the index following it.
+     */
+    private static int putLine(float[] points, int index, float centerX, float centerY, int tick,
+                               float outerRadius, float innerRadius) {
+        float sin = TrigTable.sin(tick);
+        float cos = TrigTable.cos(tick);
+        points[index]     = centerX + sin * outerRadius;
+        points[index + 1] = centerY - cos * outerRadius;
+        points[index + 2] = centerX + sin * innerRadius;
+        points[index + 3] = centerY - cos * innerRadius;
+        return index + 4;
+    }
+}
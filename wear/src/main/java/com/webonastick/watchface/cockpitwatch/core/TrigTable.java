@@ -0,0 +1,55 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+/**
+ * Sine and cosine of the 60 fixed dial angles (one every 6 degrees,
+ * clockwise from 12 o'clock), so that dial geometry never calls
+ * {@link Math#sin} or rotates a canvas per tick.
+ *
+ * A point at distance r from the center, at tick t, is at
+ * (centerX + r * sin(t), centerY - r * cos(t)).
+ */
+public final class TrigTable {
+    public static final int TICKS = 60;
+    public static final int TICKS_PER_HOUR = TICKS / 12;
+    public static final float DEGREES_PER_TICK = 360f / TICKS;
+
+    private static final float[] SIN = new float[TICKS];
+    private static final float[] COS = new float[TICKS];
+
+    static {
+        for (int tick = 0; tick < TICKS; tick += 1) {
+            double radians = Math.PI * tick * DEGREES_PER_TICK / 180.0;
+            SIN[tick] = (float)Math.sin(radians);
+            COS[tick] = (float)Math.cos(radians);
+        }
+        /* exact values at the quarters, so that 3, 6, 9 and 12 line up on pixels */
+        SIN[0]  = 0f; COS[0]  = 1f;
+        SIN[15] = 1f; COS[15] = 0f;
+        SIN[30] = 0f; COS[30] = -1f;
+        SIN[45] = -1f; COS[45] = 0f;
+    }
+
+    private TrigTable() {
+    }
+
+    /**
+     * @param tick any tick index; negative values and values of 60
+     *             or more wrap around the dial.
+     */
+    public static float sin(int tick) {
+        return SIN[index(tick)];
+    }
+
+    public static float cos(int tick) {
+        return COS[index(tick)];
+    }
+
+    public static int hourTick(int hour) {
+        return TICKS_PER_HOUR * (hour % 12);
+    }
+
+    private static int index(int tick) {
+        int index = tick % TICKS;
+        return index < 0 ? index + TICKS : index;
+    }
+}
@@ -0,0 +1,93 @@
+package com.webonastick.watchface;
+
+import android.content.BroadcastReceiver;
+import android.content.ContextWrapper;
+import android.content.Intent;
+import android.content.IntentFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that {@link BatteryLevelMonitor} registers its receiver once
+ * per start, and that reading the level, which is all the engine's
+ * onDraw does with it, never registers anything.
+ */
+public class BatteryLevelMonitorTest {
+    /* counts receivers registered, as the engine's context would see them */
+    private static final class CountingContext extends ContextWrapper {
+        int registered = 0;
+        int unregistered = 0;
+
+        CountingContext() {
+            super(null);
+        }
+
+        @Override
+        public Intent registerReceiver(BroadcastReceiver receiver, IntentFilter filter) {
+            registered += 1;
+            /* no sticky broadcast yet */
+            return null;
+        }
+
+        @Override
+        public void unregisterReceiver(BroadcastReceiver receiver) {
+            unregistered += 1;
+        }
+    }
+
+    private final CountingContext mContext = new CountingContext();
+    private int mChanges = 0;
+    private BatteryLevelMonitor mMonitor;
+
+    @Before
+    public void setUp() {
+        mMonitor = new BatteryLevelMonitor(mContext, new Runnable() {
+            @Override
+            public void run() {
+                mChanges += 1;
+            }
+        });
+    }
+
+    @Test
+    public void readingTheLevelNeverRegisters() {
+        mMonitor.start();
+        assertEquals(1, mContext.registered);
+        mMonitor.update(57, 100);
+        /* as many frames as a minute at 60 fps */
+        for (int frame = 0; frame < 3600; frame += 1) {
+            assertEquals(57f, mMonitor.getPercentage(), 0f);
+        }
+        assertEquals(1, mContext.registered);
+        assertEquals(0, mContext.unregistered);
+    }
+
+    @Test
+    public void registersOncePerVisibility() {
+        mMonitor.start();
+        mMonitor.start();
+        assertEquals(1, mContext.registered);
+        mMonitor.stop();
+        mMonitor.stop();
+        assertEquals(1, mContext.unregistered);
+        mMonitor.start();
+        assertEquals(2, mContext.registered);
+    }
+
+    @Test
+    public void reportsOnlyChanges() {
+        mMonitor.start();
+        assertEquals(-1f, mMonitor.getPercentage(), 0f);
+        assertEquals(0, mChanges);
+        mMonitor.update(50, 200);
+        mMonitor.update(50, 200);
+        assertEquals(25f, mMonitor.getPercentage(), 0f);
+        assertEquals(1, mChanges);
+        mMonitor.update(-1, 100);
+        assertEquals(-1f, mMonitor.getPercentage(), 0f);
+        assertEquals(2, mChanges);
+    }
+}
@@ -0,0 +1,144 @@
+package com.webonastick.watchface;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.List;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks {@link WallClock} against {@link Calendar}, which it stands in
+ * for, with one clock carried forward through each test so that its
+ * cached offset is exercised the way frames exercise it.
+ */
+public class WallClockTest {
+    /* one zone per kind of rule: northern and southern DST, half-hour DST, no DST, negative offset */
+    private static final String[] ZONES = {
+            "Europe/Paris", "America/New_York", "Australia/Sydney",
+            "Australia/Lord_Howe", "Asia/Kolkata", "UTC", "America/St_Johns"
+    };
+
+    private static final long SECOND_MS = 1000;
+    private static final long MINUTE_MS = 60 * SECOND_MS;
+    private static final long HOUR_MS   = 60 * MINUTE_MS;
+    private static final long DAY_MS    = 24 * HOUR_MS;
+
+    /* 2019-01-01 00:00:00 UTC */
+    private static final long YEAR_START_MS = 1546300800000L;
+    private static final long YEAR_MS = 365 * DAY_MS;
+
+    @Test
+    public void wholeYearAtIrregularSteps() {
+        for (String id : ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(id);
+            WallClock clock = new WallClock(timeZone);
+            Calendar calendar = Calendar.getInstance(timeZone);
+            /* not a divisor of anything, so that every minute and second gets sampled */
+            for (long timeMs = YEAR_START_MS; timeMs < YEAR_START_MS + YEAR_MS; timeMs += 7 * MINUTE_MS + 3217) {
+                assertSame(id, clock, calendar, timeMs);
+            }
+        }
+    }
+
+    @Test
+    public void secondBySecondAcrossOffsetChanges() {
+        int transitions = 0;
+        for (String id : ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(id);
+            WallClock clock = new WallClock(timeZone);
+            Calendar calendar = Calendar.getInstance(timeZone);
+            for (long transitionMs : transitions(timeZone)) {
+                transitions += 1;
+                for (long timeMs = transitionMs - 2 * HOUR_MS; timeMs < transitionMs + 2 * HOUR_MS;
+                     timeMs += SECOND_MS) {
+                    assertSame(id, clock, calendar, timeMs);
+                }
+                /* and to the millisecond right at the change */
+                for (long timeMs = transitionMs - SECOND_MS; timeMs < transitionMs + SECOND_MS; timeMs += 1) {
+                    assertSame(id, clock, calendar, timeMs);
+                }
+            }
+        }
+        /* Paris, New York, Sydney and Lord Howe each change twice a year, St. John's too */
+        assertEquals(10, transitions);
+    }
+
+    @Test
+    public void acrossMidnight() {
+        for (String id : ZONES) {
+            TimeZone timeZone = TimeZone.getTimeZone(id);
+            WallClock clock = new WallClock(timeZone);
+            Calendar calendar = Calendar.getInstance(timeZone);
+            for (int day = 0; day < 365; day += 29) {
+                long midnightMs = YEAR_START_MS + day * DAY_MS - timeZone.getOffset(YEAR_START_MS + day * DAY_MS);
+                for (long timeMs = midnightMs - 5 * SECOND_MS; timeMs < midnightMs + 5 * SECOND_MS; timeMs += 1) {
+                    assertSame(id, clock, calendar, timeMs);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void clockSetBackAndZoneChanged() {
+        TimeZone paris = TimeZone.getTimeZone("Europe/Paris");
+        TimeZone newYork = TimeZone.getTimeZone("America/New_York");
+        WallClock clock = new WallClock(paris);
+        Calendar calendar = Calendar.getInstance(paris);
+        long timeMs = YEAR_START_MS + 200 * DAY_MS + 12345;
+
+        assertSame("Europe/Paris", clock, calendar, timeMs);
+        assertSame("Europe/Paris", clock, calendar, timeMs - 150 * DAY_MS);
+        assertSame("Europe/Paris", clock, calendar, timeMs);
+
+        clock.setTimeZone(newYork);
+        calendar = Calendar.getInstance(newYork);
+        assertSame("America/New_York", clock, calendar, timeMs);
+
+        /* before 1970, where the millisecond count is negative */
+        assertSame("America/New_York", clock, calendar, -DAY_MS / 3 - 1);
+    }
+
+    /**
+     * Returns the instants in 2019 at which a zone's offset changes,
+     * found by scanning hourly and bisecting.
+     */
+    private static List<Long> transitions(TimeZone timeZone) {
+        List<Long> transitions = new ArrayList<>();
+        for (long timeMs = YEAR_START_MS; timeMs < YEAR_START_MS + YEAR_MS; timeMs += HOUR_MS) {
+            int offsetMs = timeZone.getOffset(timeMs);
+            if (timeZone.getOffset(timeMs + HOUR_MS) == offsetMs) {
+                continue;
+            }
+            long lo = timeMs;
+            long hi = timeMs + HOUR_MS;
+            while (hi - lo > 1) {
+                long mid = lo + (hi - lo) / 2;
+                if (timeZone.getOffset(mid) == offsetMs) {
+                    lo = mid;
+                } else {
+                    hi = mid;
+                }
+            }
+            assertTrue(hi % MINUTE_MS == 0);
+            transitions.add(hi);
+        }
+        return transitions;
+    }
+
+    private static void assertSame(String id, WallClock clock, Calendar calendar, long timeMs) {
+        clock.setTimeInMillis(timeMs);
+        calendar.setTimeInMillis(timeMs);
+        String message = id + " at " + timeMs;
+        assertEquals(message, calendar.get(Calendar.HOUR_OF_DAY), clock.getHourOfDay());
+        assertEquals(message, calendar.get(Calendar.HOUR), clock.getHour());
+        assertEquals(message, calendar.get(Calendar.MINUTE), clock.getMinute());
+        assertEquals(message, calendar.get(Calendar.SECOND), clock.getSecond());
+        assertEquals(message, calendar.get(Calendar.MILLISECOND), clock.getMillisecond());
+        assertEquals(message, calendar.get(Calendar.ZONE_OFFSET) + calendar.get(Calendar.DST_OFFSET),
+                clock.getOffsetMs());
+    }
+}
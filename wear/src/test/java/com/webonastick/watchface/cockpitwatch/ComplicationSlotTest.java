@@ -0,0 +1,144 @@
+package com.webonastick.watchface.cockpitwatch;
+
+import android.app.PendingIntent;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks when a {@link ComplicationSlot} asks to be rendered again,
+ * with {@link FakeComplicationContent} and with content that changes
+ * with time, whose next change is recorded the way
+ * {@link Complications} records it: from the content's
+ * getNextChangeMs() at render time.
+ */
+public class ComplicationSlotTest {
+    /* 2019-06-01 12:00:00 UTC */
+    private static final long START_MS = 1559390400000L;
+
+    /* text that changes once, at a given time, like a countdown's */
+    private static final class ChangingContent implements ComplicationContent {
+        private final long mChangeMs;
+
+        ChangingContent(long changeMs) {
+            mChangeMs = changeMs;
+        }
+
+        @Override
+        public boolean isActive(long timeMs) {
+            return true;
+        }
+
+        @Override
+        public CharSequence getText(long timeMs) {
+            return timeMs < mChangeMs ? "1 min" : "0 min";
+        }
+
+        @Override
+        public CharSequence getTitle(long timeMs) {
+            return null;
+        }
+
+        @Override
+        public boolean hasRange() {
+            return false;
+        }
+
+        @Override
+        public float getValue() {
+            return 0f;
+        }
+
+        @Override
+        public float getMinValue() {
+            return 0f;
+        }
+
+        @Override
+        public float getMaxValue() {
+            return 0f;
+        }
+
+        @Override
+        public long getNextChangeMs(long timeMs) {
+            return timeMs < mChangeMs ? mChangeMs : Long.MAX_VALUE;
+        }
+
+        @Override
+        public PendingIntent getTapAction() {
+            return null;
+        }
+    }
+
+    private final ComplicationSlot mSlot = new ComplicationSlot(0);
+
+    private void render(long timeMs, int mode) {
+        ComplicationContent content = mSlot.getContent();
+        mSlot.endRender(mode, content == null ? Long.MAX_VALUE : content.getNextChangeMs(timeMs));
+    }
+
+    @Test
+    public void staleUntilRendered() {
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+        mSlot.setContent(new FakeComplicationContent("12", "JUN"));
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        assertFalse(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+    }
+
+    @Test
+    public void fakeContentNeverChangesWithTime() {
+        mSlot.setContent(new FakeComplicationContent("57", "BATT", 57f, 0f, 100f));
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        assertEquals(Long.MAX_VALUE, mSlot.getNextChangeMs());
+        assertFalse(mSlot.isStale(START_MS + 86400000L, DialPainter.DIAL_INTERACTIVE));
+        assertFalse(mSlot.isStale(Long.MAX_VALUE - 1, DialPainter.DIAL_INTERACTIVE));
+    }
+
+    @Test
+    public void staleOnModeChange() {
+        mSlot.setContent(new FakeComplicationContent("12", "JUN"));
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_AMBIENT));
+        render(START_MS, DialPainter.DIAL_AMBIENT);
+        assertFalse(mSlot.isStale(START_MS, DialPainter.DIAL_AMBIENT));
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+    }
+
+    @Test
+    public void staleOnNewContentOrBounds() {
+        mSlot.setContent(new FakeComplicationContent("12", "JUN"));
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        mSlot.setContent(new FakeComplicationContent("13", "JUN"));
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        mSlot.setBounds(227f, 120f, 50f, 4f);
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_INTERACTIVE));
+    }
+
+    @Test
+    public void staleFromTheNextChangeOn() {
+        final long changeMs = START_MS + 30000L;
+        mSlot.setContent(new ChangingContent(changeMs));
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        assertEquals(changeMs, mSlot.getNextChangeMs());
+        assertFalse(mSlot.isStale(changeMs - 1, DialPainter.DIAL_INTERACTIVE));
+        assertTrue(mSlot.isStale(changeMs, DialPainter.DIAL_INTERACTIVE));
+        assertTrue(mSlot.isStale(changeMs + 1, DialPainter.DIAL_INTERACTIVE));
+
+        /* rendered once it changed, it has nothing more to wait for */
+        render(changeMs, DialPainter.DIAL_INTERACTIVE);
+        assertFalse(mSlot.isStale(START_MS + 86400000L, DialPainter.DIAL_INTERACTIVE));
+    }
+
+    @Test
+    public void emptySlotNeverChangesWithTime() {
+        render(START_MS, DialPainter.DIAL_INTERACTIVE);
+        assertFalse(mSlot.isStale(START_MS + 86400000L, DialPainter.DIAL_INTERACTIVE));
+        assertTrue(mSlot.isStale(START_MS, DialPainter.DIAL_AMBIENT));
+    }
+}
@@ -0,0 +1,63 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Assume;
+
+/**
+ * Runs a piece of the pure-Java drawing code a number of times after a
+ * warm-up, and prints the mean time per run to standard output, as
+ * {@code Benchmark <suite> <size> <case> ns_per_op <n> runs <n>},
+ * tab-separated, so that runs can be diffed between releases.
+ *
+ * Benchmarks are skipped unless the {@code benchmark} system property
+ * is true, so that a normal test run stays quick and quiet; with
+ * Gradle, {@code ./gradlew test -Pbenchmark} sets it.
+ */
+final class BenchmarkLoop {
+    private static final String TAG = "Benchmark";
+    private static final String PROPERTY = "benchmark";
+
+    private static final int DEFAULT_WARMUP_RUNS = 2000;
+    private static final int DEFAULT_RUNS        = 20000;
+
+    private final String mSuite;
+    private final int mWarmupRuns;
+    private final int mRuns;
+
+    /**
+     * Skips the calling test unless benchmarks were asked for; call
+     * from the benchmark class's {@code @Before} method.
+     */
+    static void assumeEnabled() {
+        Assume.assumeTrue("run with -D" + PROPERTY + "=true", Boolean.getBoolean(PROPERTY));
+    }
+
+    BenchmarkLoop(String suite) {
+        this(suite, DEFAULT_WARMUP_RUNS, DEFAULT_RUNS);
+    }
+
+    BenchmarkLoop(String suite, int warmupRuns, int runs) {
+        mSuite = suite;
+        mWarmupRuns = warmupRuns;
+        mRuns = runs;
+    }
+
+    /**
+     * Runs {@code body} and prints its mean time.
+     *
+     * @param size surface size the case runs at, in pixels.
+     * @return mean nanoseconds per run.
+     */
+    long run(int size, String name, Runnable body) {
+        for (int i = 0; i < mWarmupRuns; i += 1) {
+            body.run();
+        }
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < mRuns; i += 1) {
+            body.run();
+        }
+        long nanosPerRun = (System.nanoTime() - startNanos) / mRuns;
+        System.out.println(TAG + "\t" + mSuite + "\t" + size + "\t" + name
+                + "\tns_per_op\t" + nanosPerRun + "\truns\t" + mRuns);
+        return nanosPerRun;
+    }
+}
@@ -0,0 +1,107 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class DialLayoutTest {
+    private static final float EPSILON = 1e-3f;
+
+    /* counts measurements, to tell whether a layout was computed again */
+    private static final class CountingMeasurer implements TextMeasurer {
+        private final RecordingDrawTarget mTarget = new RecordingDrawTarget(false);
+        int calls = 0;
+
+        @Override
+        public void measureText(int element, float textSize, String text, float[] size) {
+            calls += 1;
+            mTarget.measureText(element, textSize, text, size);
+        }
+    }
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final DialLayout mLayout = new DialLayout();
+    private final CountingMeasurer mMeasurer = new CountingMeasurer();
+    private final Object mFont = new Object();
+
+    @Before
+    public void setUp() {
+        mGeometry.update(400, 400);
+        mLayout.update(mGeometry, mMeasurer, 400, 400, mFont);
+    }
+
+    @Test
+    public void cachedUntilSizeOrFontChanges() {
+        int calls = mMeasurer.calls;
+        assertTrue(mLayout.isValidFor(400, 400, mFont));
+        mLayout.update(mGeometry, mMeasurer, 400, 400, mFont);
+        assertEquals(calls, mMeasurer.calls);
+
+        assertFalse(mLayout.isValidFor(400, 400, new Object()));
+        assertFalse(mLayout.isValidFor(454, 454, mFont));
+
+        mLayout.invalidate();
+        assertFalse(mLayout.isValidFor(400, 400, mFont));
+        mLayout.update(mGeometry, mMeasurer, 400, 400, mFont);
+        assertEquals(2 * calls, mMeasurer.calls);
+    }
+
+    @Test
+    public void numeralsAreSymmetric() {
+        assertEquals(mGeometry.centerX, mLayout.hourX[0], EPSILON);
+        assertEquals(mGeometry.centerX, mLayout.hourX[6], EPSILON);
+        assertEquals(mGeometry.centerX - mLayout.hourX[9], mLayout.hourX[3] - mGeometry.centerX, EPSILON);
+        assertEquals(mLayout.hourY[3], mLayout.hourY[9], EPSILON);
+        assertEquals(mLayout.hourX[4] - mGeometry.centerX, mGeometry.centerX - mLayout.hourX[8], EPSILON);
+        assertEquals(mLayout.hourY[4], mLayout.hourY[8], EPSILON);
+    }
+
+    @Test
+    public void numeralsStayInsideTheTicks() {
+        float inner = mGeometry.radius * DialGeometry.HOUR_TICK_INNER_RADIUS;
+        for (int index = 0; index < 12; index += 1) {
+            float dx = mLayout.hourX[index] - mGeometry.centerX;
+            float dy = mLayout.hourY[index] - mGeometry.centerY;
+            assertTrue("numeral " + DialLayout.HOUR_STRINGS[index], dx * dx + dy * dy < inner * inner);
+        }
+    }
+
+    @Test
+    public void complicationClearsTheNumeralsAndTheHub() {
+        /* the baseline of "24" is the bottom of the numerals above the slot */
+        assertTrue(mGeometry.complicationCenterY - mGeometry.complicationRadius > mLayout.hour24Y[0]);
+        assertTrue(mGeometry.complicationCenterY + mGeometry.complicationRadius < mGeometry.centerY);
+        assertEquals(mGeometry.centerX, mGeometry.complicationCenterX, EPSILON);
+        /* and it does so at every size */
+        for (int size = 240; size <= 480; size += 40) {
+            DialGeometry geometry = new DialGeometry();
+            DialLayout layout = new DialLayout();
+            geometry.update(size, size);
+            layout.update(geometry, mMeasurer, size, size, mFont);
+            assertTrue("size " + size,
+                    geometry.complicationCenterY - geometry.complicationRadius > layout.hour24Y[0]);
+            assertTrue("size " + size, geometry.complicationRadius > size * 0.08f);
+        }
+    }
+
+    @Test
+    public void twentyFourHourNumeralsSitInsideTheirHours() {
+        /* "24" under "12", "18" over "6", "15" left of "3", "21" right of "9" */
+        assertTrue(mLayout.hour24Y[0] > mLayout.hourY[0]);
+        assertTrue(mLayout.hour24Y[6] < mLayout.hourY[6]);
+        assertTrue(mLayout.hour24X[3] < mLayout.hourX[3]);
+        assertTrue(mLayout.hour24X[9] > mLayout.hourX[9]);
+    }
+
+    @Test
+    public void batteryLabelsAtTheEndsAndTop() {
+        assertTrue(mLayout.batteryLabelX[0] < mGeometry.batteryCenterX);
+        assertEquals(mGeometry.batteryCenterX, mLayout.batteryLabelX[5], EPSILON);
+        assertTrue(mLayout.batteryLabelX[10] > mGeometry.batteryCenterX);
+        assertEquals(mLayout.batteryLabelY[0], mLayout.batteryLabelY[10], EPSILON);
+        assertTrue(mLayout.batteryLabelY[5] < mLayout.batteryLabelY[0]);
+    }
+}
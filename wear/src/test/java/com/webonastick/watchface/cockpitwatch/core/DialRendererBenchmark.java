@@ -0,0 +1,105 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Times the pure-Java half of a dial build at the usual watch sizes,
+ * with {@link RecordingDrawTarget} standing in for the canvas: what is
+ * measured is the geometry, the tick and layout computation and the
+ * renderer's own overhead, not rasterization.  Also times the hand
+ * outlines, rebuilt with the geometry, and the per-frame hand rotation
+ * math.  The dial's correctness is checked by {@link DialRendererTest}.
+ */
+public class DialRendererBenchmark {
+    private static final int[] SIZES = { 240, 280, 320, 360, 400, 454, 480 };
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final DialLayout mLayout = new DialLayout();
+    private final DialRenderer mRenderer = new DialRenderer(mTicks, mLayout);
+    private final RecordingDrawTarget mTarget = new RecordingDrawTarget(false);
+    private final Object mFont = new Object();
+
+    private final HandBounds mHandBounds = new HandBounds();
+    /* kept so that the computations are not optimized away */
+    private float mSink;
+    private int mMillis;
+
+    @Before
+    public void setUp() {
+        BenchmarkLoop.assumeEnabled();
+    }
+
+    @Test
+    public void dialBuild() {
+        BenchmarkLoop benchmark = new BenchmarkLoop("DialRenderer");
+        mRenderer.setColors(0xff000000, 0xffffffff, 0xffffffff, 0xff808080, 0xffff8000);
+        for (final int size : SIZES) {
+            mGeometry.update(size, size);
+            mTicks.build(mGeometry);
+            mLayout.update(mGeometry, mTarget, size, size, mFont);
+
+            benchmark.run(size, "geometry", new Runnable() {
+                @Override
+                public void run() {
+                    mGeometry.update(size, size);
+                }
+            });
+            benchmark.run(size, "ticks", new Runnable() {
+                @Override
+                public void run() {
+                    mTicks.build(mGeometry);
+                }
+            });
+            benchmark.run(size, "layout", new Runnable() {
+                @Override
+                public void run() {
+                    mLayout.invalidate();
+                    mLayout.update(mGeometry, mTarget, size, size, mFont);
+                }
+            });
+            benchmark.run(size, "hand outlines", new Runnable() {
+                @Override
+                public void run() {
+                    mGeometry.hourHand.update(mGeometry.centerX, mGeometry.centerY,
+                            mGeometry.hourHandLength, mGeometry.hourHandWidth);
+                    mGeometry.minuteHand.update(mGeometry.centerX, mGeometry.centerY,
+                            mGeometry.minuteHandLength, mGeometry.minuteHandWidth);
+                    mGeometry.secondHand.update(mGeometry.centerX, mGeometry.centerY,
+                            mGeometry.secondHandLength, mGeometry.secondHandWidth);
+                    mGeometry.batteryHand.update(mGeometry.batteryCenterX, mGeometry.batteryCenterY,
+                            mGeometry.batteryHandLength, mGeometry.batteryHandWidth);
+                }
+            });
+            mHandBounds.set(mGeometry.centerX - mGeometry.minuteHandWidth / 2,
+                    mGeometry.centerY - mGeometry.minuteHandLength,
+                    mGeometry.centerX + mGeometry.minuteHandWidth / 2,
+                    mGeometry.centerY + mGeometry.minuteHandWidth / 2);
+            benchmark.run(size, "hand rotations", new Runnable() {
+                @Override
+                public void run() {
+                    /* a new time at every run, one 60 Hz frame apart */
+                    mMillis = (mMillis + 16) % 43200000;
+                    int hour = mMillis / 3600000;
+                    int minute = mMillis / 60000 % 60;
+                    int second = mMillis / 1000 % 60;
+                    int millis = mMillis % 1000;
+                    float minuteAngle = HandAngles.quantize(HandAngles.minuteAngle(minute, second, millis), 0.1f);
+                    mSink += HandAngles.quantize(HandAngles.hourAngle(hour, minute, second, millis), 0.1f);
+                    mSink += HandAngles.secondAngle(second, millis);
+                    mSink += HandAngles.batteryAngle(57f);
+                    mHandBounds.rotate(minuteAngle, mGeometry.centerX, mGeometry.centerY);
+                    mSink += mHandBounds.right - mHandBounds.left;
+                }
+            });
+            benchmark.run(size, "dial", new Runnable() {
+                @Override
+                public void run() {
+                    mTarget.reset();
+                    mRenderer.drawDial(mTarget, true, false);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The JVM half of the golden frame check: draws the dial into a
+ * {@link RecordingDrawTarget} and checks the command stream's
+ * structure, and its checksum against the one recorded when the dial
+ * last changed on purpose.  A change meant only to make the dial
+ * faster must leave {@link #GOLDEN_CHECKSUMS} alone; one that changes
+ * how the dial looks updates them, from the failure messages.
+ *
+ * Each of the on-device check's modes is also checked here, through
+ * what the pure-Java code computes for it: the dial variant, the hand
+ * outlines and angles at the demo time, and where the complication
+ * goes.  Low-bit, burn-in and mute only change paints and masks, which
+ * only the on-device check sees.
+ */
+public class DialRendererTest {
+    private static final int[] SIZES = { 240, 360, 480 };
+
+    /* per size, then shadows, no shadows, ambient without shadows */
+    private static final long[][] GOLDEN_CHECKSUMS = {
+            { 0x70f39665d8b529eeL, 0xee222cdf3b05591cL, 0x801375119d4e4798L },
+            { 0xd03beee8dad8df2cL, 0x392c88a7aef44370L, 0xcb1dd0da113d31ecL },
+            { 0x23e88cd4690b4ba7L, 0xc7b3aa070c196d37L, 0x59a4f2396e625bb3L },
+    };
+
+    /* the on-device check's modes, as its GOLDEN_* flags combine them */
+    private static final int AMBIENT = 1;
+    private static final int LOW_BIT = 2;
+    private static final int BURN_IN = 4;
+    private static final int MUTE    = 8;
+    private static final int[] MODES = {
+            0,
+            MUTE,
+            AMBIENT,
+            AMBIENT | MUTE,
+            AMBIENT | LOW_BIT,
+            AMBIENT | BURN_IN,
+            AMBIENT | LOW_BIT | BURN_IN
+    };
+
+    /* per size, then per mode in MODES: the two interactive ones, then the five ambient ones */
+    private static final long[][] GOLDEN_FRAME_CHECKSUMS = {
+            { 0xb716738adc97d2ecL, 0xb716738adc97d2ecL,
+              0x2f906d64fbb16ce9L, 0x2f906d64fbb16ce9L, 0x2f906d64fbb16ce9L, 0x2f906d64fbb16ce9L, 0x2f906d64fbb16ce9L },
+            { 0xd8ed7a245712ce19L, 0xd8ed7a245712ce19L,
+              0x0f23a8d544c7b96eL, 0x0f23a8d544c7b96eL, 0x0f23a8d544c7b96eL, 0x0f23a8d544c7b96eL, 0x0f23a8d544c7b96eL },
+            { 0x68bdb27d974236f5L, 0x68bdb27d974236f5L,
+              0xe883fb9cfc7b7112L, 0xe883fb9cfc7b7112L, 0xe883fb9cfc7b7112L, 0xe883fb9cfc7b7112L, 0xe883fb9cfc7b7112L },
+    };
+
+    /* the engine's demo time and battery level, and how far its slow hands' tips move at a time */
+    private static final int DEMO_HOUR = 10;
+    private static final int DEMO_MINUTE = 10;
+    private static final int DEMO_SECOND = 32;
+    private static final int DEMO_MILLISECOND = 500;
+    private static final float DEMO_BATTERY_PERCENTAGE = 69f;
+    private static final float SLOW_HAND_PIXEL_STEP = 0.5f;
+
+    private static final int SHADOW = 0xff000000;
+    private static final int TEXT = 0xffffffff;
+    private static final int HOUR_TICK = 0xffffffff;
+    private static final int MINUTE_TICK = 0xff808080;
+    private static final int BATTERY_TICK = 0xffff8000;
+
+    /* clock ticks, battery ticks, three battery labels and the caption */
+    private static final int TICK_COMMANDS = 2 + 1 + 3 + 1;
+    /* twelve numerals and four 24-hour ones */
+    private static final int NUMBER_COMMANDS = 12 + 4;
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final DialLayout mLayout = new DialLayout();
+    private final DialRenderer mRenderer = new DialRenderer(mTicks, mLayout);
+    private final Object mFont = new Object();
+
+    @Test
+    public void commandCounts() {
+        RecordingDrawTarget target = render(360, true, false);
+        assertEquals((1 + DialRenderer.TICK_NUMBER_SHADOW) * (TICK_COMMANDS + NUMBER_COMMANDS),
+                target.getCommands());
+        target = render(360, false, false);
+        assertEquals(TICK_COMMANDS + NUMBER_COMMANDS, target.getCommands());
+    }
+
+    @Test
+    public void shadowsGoUnderneath() {
+        /* the first line is the summary, then the commands */
+        String[] lines = render(360, true, false).toString().split("\n");
+        String first = lines[1];
+        String last = lines[lines.length - 1];
+        /* tick shadows first, in black; the numerals themselves last */
+        assertTrue(first, first.startsWith("lines " + DrawTarget.HOUR_TICKS + " ff000000"));
+        assertTrue(last, last.startsWith("text " + DrawTarget.HOUR_TEXT + " ffffffff"));
+    }
+
+    @Test
+    public void sameInputsSameChecksum() {
+        for (int size : SIZES) {
+            long checksum = render(size, true, false).getChecksum();
+            assertEquals(checksum, render(size, true, false).getChecksum());
+            assertNotEquals(checksum, render(size, false, false).getChecksum());
+            assertNotEquals(render(size, false, false).getChecksum(), render(size, false, true).getChecksum());
+        }
+    }
+
+    @Test
+    public void matchesGoldenChecksums() {
+        StringBuilder mismatches = new StringBuilder();
+        for (int i = 0; i < SIZES.length; i += 1) {
+            long[] checksums = {
+                    render(SIZES[i], true, false).getChecksum(),
+                    render(SIZES[i], false, false).getChecksum(),
+                    render(SIZES[i], false, true).getChecksum(),
+            };
+            for (int variant = 0; variant < checksums.length; variant += 1) {
+                if (checksums[variant] != GOLDEN_CHECKSUMS[i][variant]) {
+                    mismatches.append(SIZES[i]).append(" variant ").append(variant)
+                            .append(": 0x").append(Long.toHexString(checksums[variant])).append("L\n");
+                }
+            }
+        }
+        assertEquals("", mismatches.toString());
+    }
+
+    @Test
+    public void matchesGoldenFrameChecksums() {
+        StringBuilder mismatches = new StringBuilder();
+        for (int i = 0; i < SIZES.length; i += 1) {
+            for (int m = 0; m < MODES.length; m += 1) {
+                long checksum = frameChecksum(SIZES[i], MODES[m]);
+                if (checksum != GOLDEN_FRAME_CHECKSUMS[i][m]) {
+                    mismatches.append(SIZES[i]).append(" mode ").append(MODES[m])
+                            .append(": 0x").append(Long.toHexString(checksum)).append("L\n");
+                }
+            }
+        }
+        assertEquals("", mismatches.toString());
+    }
+
+    @Test
+    public void onlyAmbientChangesTheFrameHere() {
+        for (int size : SIZES) {
+            long interactive = frameChecksum(size, 0);
+            long ambient = frameChecksum(size, AMBIENT);
+            assertNotEquals(interactive, ambient);
+            for (int mode : MODES) {
+                assertEquals("size " + size + " mode " + mode,
+                        (mode & AMBIENT) != 0 ? ambient : interactive, frameChecksum(size, mode));
+            }
+        }
+    }
+
+    /**
+     * Returns a checksum of what the pure-Java code computes for a frame
+     * of the on-device check, in one of {@link #MODES}.
+     */
+    private long frameChecksum(int size, int mode) {
+        boolean ambient = (mode & AMBIENT) != 0;
+        long checksum = render(size, !ambient, ambient).getChecksum();
+
+        /* ambient hands show whole minutes; the check pins interactive frames to a fluid sweep */
+        int second = ambient ? 0 : DEMO_SECOND;
+        int millisecond = ambient ? 0 : DEMO_MILLISECOND;
+        float[] angles = {
+                HandAngles.quantize(HandAngles.hourAngle(DEMO_HOUR, DEMO_MINUTE, second, millisecond),
+                        HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.hourHandLength)),
+                HandAngles.quantize(HandAngles.minuteAngle(DEMO_MINUTE, second, millisecond),
+                        HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.minuteHandLength)),
+                HandAngles.secondAngle(second, millisecond),
+                HandAngles.quantize(HandAngles.batteryAngle(DEMO_BATTERY_PERCENTAGE),
+                        HandAngles.quantum(SLOW_HAND_PIXEL_STEP, mGeometry.batteryHandLength)),
+                mGeometry.complicationCenterX,
+                mGeometry.complicationCenterY,
+                mGeometry.complicationRadius,
+        };
+        checksum = hash(checksum, angles);
+        checksum = hash(checksum, mGeometry.hourHand.outline);
+        checksum = hash(checksum, mGeometry.minuteHand.outline);
+        checksum = hash(checksum, mGeometry.secondHand.outline);
+        checksum = hash(checksum, mGeometry.batteryHand.outline);
+        return checksum;
+    }
+
+    private static long hash(long checksum, float[] values) {
+        for (float value : values) {
+            checksum = checksum * 31 + Float.floatToIntBits(value);
+        }
+        return checksum;
+    }
+
+    private RecordingDrawTarget render(int size, boolean shadows, boolean ambient) {
+        RecordingDrawTarget target = new RecordingDrawTarget(true);
+        mGeometry.update(size, size);
+        mTicks.build(mGeometry);
+        mLayout.invalidate();
+        mLayout.update(mGeometry, target, size, size, mFont);
+        mRenderer.setColors(SHADOW, TEXT, HOUR_TICK, MINUTE_TICK, BATTERY_TICK);
+        mRenderer.drawDial(target, shadows, ambient);
+        return target;
+    }
+}
@@ -0,0 +1,176 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import com.webonastick.watchface.FrameRateScheduler;
+import com.webonastick.watchface.FrameTimings;
+import com.webonastick.watchface.TextLine;
+import com.webonastick.watchface.WallClock;
+
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Checks that the per-frame decisions the engine's onDraw makes in
+ * plain Java allocate nothing once warm, in the order onDraw makes
+ * them: reading the clock, hand angles, which hands moved and where
+ * ({@link HandBounds}), which complications fit the budget, frame
+ * timings, the next frame's delay, and the timing overlay's text.
+ * Dial drawing, which only happens when a dial is built, is checked
+ * separately.
+ *
+ * Not covered, as they need an Android runtime: the Canvas, Bitmap
+ * and Paint calls themselves (sprite, atlas and layer blits,
+ * updateSlowLayer, complication rendering), and the Rect unions in
+ * HandDamage.
+ *
+ * Counts bytes allocated by the test thread, which needs HotSpot's
+ * com.sun.management.ThreadMXBean; the tests are skipped elsewhere.
+ */
+public class DrawPathAllocationTest {
+    private static final int SIZE = 454;
+    private static final int WARMUP_FRAMES = 20000;
+    private static final int FRAMES = 2000;
+
+    /* 2019-06-01 12:00:00 UTC, so that the frames below stay within an hour */
+    private static final long START_MS = 1559390400000L;
+    private static final long FRAME_MS = 16;
+
+    private static final String[] PHASE_NAMES = { "hands", "complications" };
+    private static final String[] SETUP_NAMES = { "background" };
+    private static final int[] PERCENTILES = { 50, 95, 99 };
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final DialLayout mLayout = new DialLayout();
+    private final DialRenderer mRenderer = new DialRenderer(mTicks, mLayout);
+    private final RecordingDrawTarget mTarget = new RecordingDrawTarget(false);
+    private final WallClock mClock = new WallClock(TimeZone.getTimeZone("Europe/Paris"));
+    private final Object mFont = new Object();
+
+    private final HandBounds[] mHandBounds = { new HandBounds(), new HandBounds(), new HandBounds() };
+    private final float[] mRotations = new float[3];
+    private final float[] mLastRotations = new float[3];
+    private final FrameBudget mBudget = new FrameBudget(1, 2000000L);
+    private final FrameTimings mTimings = new FrameTimings(PHASE_NAMES, SETUP_NAMES, 256);
+    private final FrameRateScheduler mScheduler = new FrameRateScheduler(FrameRateScheduler.RATE_FLUID_SWEEP);
+    private final TextLine mHudLine = new TextLine(64);
+    private final long[] mPercentiles = new long[PERCENTILES.length];
+
+    private com.sun.management.ThreadMXBean mThreads;
+    /* kept so that the computations are not optimized away */
+    private long mSink;
+
+    @Before
+    public void setUp() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        Assume.assumeTrue(threads instanceof com.sun.management.ThreadMXBean);
+        mThreads = (com.sun.management.ThreadMXBean)threads;
+        Assume.assumeTrue(mThreads.isThreadAllocatedMemorySupported());
+        mThreads.setThreadAllocatedMemoryEnabled(true);
+
+        mRenderer.setColors(0xff000000, 0xffffffff, 0xffffffff, 0xff808080, 0xffff8000);
+        mGeometry.update(SIZE, SIZE);
+        mTicks.build(mGeometry);
+        mLayout.update(mGeometry, mTarget, SIZE, SIZE, mFont);
+        for (HandBounds bounds : mHandBounds) {
+            bounds.set(mGeometry.centerX - 10f, mGeometry.centerY - mGeometry.minuteHandLength,
+                    mGeometry.centerX + 10f, mGeometry.centerY + 10f);
+        }
+    }
+
+    @Test
+    public void frameDecisionsDoNotAllocate() {
+        for (int frame = 0; frame < WARMUP_FRAMES; frame += 1) {
+            decideFrame(START_MS + (frame % FRAMES) * FRAME_MS);
+        }
+        long allocated = measure(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 0; frame < FRAMES; frame += 1) {
+                    decideFrame(START_MS + frame * FRAME_MS);
+                }
+            }
+        });
+        assertEquals("bytes allocated over " + FRAMES + " frames", 0L, allocated);
+    }
+
+    @Test
+    public void dialDrawingDoesNotAllocate() {
+        for (int frame = 0; frame < WARMUP_FRAMES; frame += 1) {
+            drawDial();
+        }
+        long allocated = measure(new Runnable() {
+            @Override
+            public void run() {
+                for (int frame = 0; frame < FRAMES; frame += 1) {
+                    drawDial();
+                }
+            }
+        });
+        assertEquals("bytes allocated over " + FRAMES + " dials", 0L, allocated);
+    }
+
+    private long measure(Runnable body) {
+        long threadId = Thread.currentThread().getId();
+        long overhead = mThreads.getThreadAllocatedBytes(threadId) - mThreads.getThreadAllocatedBytes(threadId);
+        long before = mThreads.getThreadAllocatedBytes(threadId);
+        body.run();
+        return mThreads.getThreadAllocatedBytes(threadId) - before + overhead;
+    }
+
+    private void decideFrame(long timeMs) {
+        long startNanos = System.nanoTime();
+        mTimings.beginFrame();
+
+        mClock.setTimeInMillis(timeMs);
+        int hour = mClock.getHour();
+        int minute = mClock.getMinute();
+        int second = mClock.getSecond();
+        int millis = mClock.getMillisecond();
+        float[] rotations = mRotations;
+        rotations[0] = HandAngles.quantize(HandAngles.hourAngle(hour, minute, second, millis), 0.1f);
+        rotations[1] = HandAngles.quantize(HandAngles.minuteAngle(minute, second, millis), 0.1f);
+        rotations[2] = HandAngles.secondAngle(second, millis);
+        for (int hand = 0; hand < mHandBounds.length; hand += 1) {
+            if (rotations[hand] != mLastRotations[hand]) {
+                mHandBounds[hand].rotate(rotations[hand], mGeometry.centerX, mGeometry.centerY);
+                mLastRotations[hand] = rotations[hand];
+                mSink += mHandBounds[hand].right - mHandBounds[hand].left;
+            }
+        }
+        mSink += Float.floatToIntBits(HandAngles.batteryAngle(57f));
+        mTimings.addPhase(0, System.nanoTime() - startNanos);
+
+        long budgetNanos = System.nanoTime();
+        mBudget.beginFrame(budgetNanos);
+        if (mBudget.tryStart(0, budgetNanos)) {
+            mBudget.finish(0, 1000L);
+        }
+        mTimings.addPhase(1, System.nanoTime() - budgetNanos);
+
+        mScheduler.onFrameRendered(System.nanoTime() - startNanos);
+        mTimings.endFrame(1000000000L / mScheduler.getRate());
+        mSink += mScheduler.getDelayMs(timeMs);
+
+        mTimings.getPercentiles(0, PERCENTILES, mPercentiles);
+        mHudLine.clear().append(mTimings.getPhaseName(0));
+        for (long percentile : mPercentiles) {
+            mHudLine.append(' ').append(percentile, 1000000L, 2);
+        }
+        mSink += mHudLine.length();
+    }
+
+    private void drawDial() {
+        if (!mLayout.isValidFor(SIZE, SIZE, mFont)) {
+            mLayout.update(mGeometry, mTarget, SIZE, SIZE, mFont);
+        }
+        mTarget.reset();
+        mRenderer.drawDial(mTarget, true, false);
+        mSink += mTarget.getCommands();
+    }
+}
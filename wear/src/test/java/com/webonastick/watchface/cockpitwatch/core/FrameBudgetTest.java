@@ -0,0 +1,92 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Drives a {@link FrameBudget} the way Complications does, with a fake
+ * clock and fake slots that take a fixed time to render.
+ */
+public class FrameBudgetTest {
+    private static final long MS = 1000000L;
+    private static final long BUDGET = 2 * MS;
+
+    private static final int FAST = 0;
+    private static final int SLOW = 1;
+    private static final long[] COSTS = { MS / 2, 5 * MS };
+
+    private final FrameBudget mBudget = new FrameBudget(COSTS.length, BUDGET);
+    private long mNowNanos = 0;
+    private final int[] mRendered = new int[COSTS.length];
+
+    @Before
+    public void learnCosts() {
+        /* costs are only known once each slot has run, one frame each */
+        for (int slot = 0; slot < COSTS.length; slot += 1) {
+            mBudget.beginFrame(mNowNanos);
+            assertTrue(mBudget.tryStart(slot, mNowNanos));
+            render(slot);
+        }
+        assertEquals(COSTS[SLOW], mBudget.getCostNanos(SLOW));
+    }
+
+    @Test
+    public void slowSlotIsDeferredBeforeItStarts() {
+        long frameStart = mNowNanos;
+        mBudget.beginFrame(frameStart);
+        assertFalse(mBudget.tryStart(SLOW, mNowNanos));
+        assertTrue(mBudget.tryStart(FAST, mNowNanos));
+        render(FAST);
+        assertTrue(mNowNanos - frameStart <= BUDGET);
+    }
+
+    @Test
+    public void fastSlotIsDeferredOnceTheBudgetIsSpent() {
+        mBudget.beginFrame(mNowNanos);
+        mNowNanos += BUDGET - COSTS[FAST] / 2;
+        assertFalse(mBudget.tryStart(FAST, mNowNanos));
+    }
+
+    @Test
+    public void slowSlotIsNotStarved() {
+        int frames = 0;
+        int overBudget = 0;
+        while (mRendered[SLOW] < 1 + 2) {
+            long frameStart = mNowNanos;
+            mBudget.beginFrame(frameStart);
+            /* the slow slot first, as if it came first in the list */
+            if (mBudget.tryStart(SLOW, mNowNanos)) {
+                render(SLOW);
+            }
+            if (mBudget.tryStart(FAST, mNowNanos)) {
+                render(FAST);
+            }
+            if (mNowNanos - frameStart > BUDGET) {
+                overBudget += 1;
+            }
+            frames += 1;
+            mNowNanos += 16 * MS;
+        }
+        /* it only ran when overdue, and alone in its frame */
+        assertEquals(2 * (FrameBudget.MAX_DEFERRALS + 1), frames);
+        assertEquals(2, overBudget);
+        assertEquals(1 + frames - 2, mRendered[FAST]);
+    }
+
+    @Test
+    public void costFollowsRecentRuns() {
+        mBudget.finish(FAST, 3 * MS / 2);
+        assertTrue(mBudget.getCostNanos(FAST) > COSTS[FAST]);
+        assertTrue(mBudget.getCostNanos(FAST) < 3 * MS / 2);
+    }
+
+    private void render(int slot) {
+        mNowNanos += COSTS[slot];
+        mBudget.finish(slot, COSTS[slot]);
+        mRendered[slot] += 1;
+    }
+}
@@ -0,0 +1,43 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HandAnglesTest {
+    private static final float EPSILON = 1e-4f;
+
+    @Test
+    public void timeToAngles() {
+        assertEquals(0f, HandAngles.hourAngle(0, 0, 0, 0), EPSILON);
+        assertEquals(90f, HandAngles.hourAngle(3, 0, 0, 0), EPSILON);
+        assertEquals(105f, HandAngles.hourAngle(3, 30, 0, 0), EPSILON);
+        assertEquals(180f, HandAngles.minuteAngle(30, 0, 0), EPSILON);
+        assertEquals(183f, HandAngles.minuteAngle(30, 30, 0), EPSILON);
+        assertEquals(90f, HandAngles.secondAngle(15, 0), EPSILON);
+        assertEquals(93f, HandAngles.secondAngle(15, 500), EPSILON);
+    }
+
+    @Test
+    public void batteryAngles() {
+        assertEquals(-90f, HandAngles.batteryAngle(0f), EPSILON);
+        assertEquals(0f, HandAngles.batteryAngle(50f), EPSILON);
+        assertEquals(90f, HandAngles.batteryAngle(100f), EPSILON);
+        assertEquals(HandAngles.batteryAngle(HandAngles.BATTERY_UNKNOWN), HandAngles.batteryAngle(-1f), EPSILON);
+        assertEquals(HandAngles.batteryAngle(HandAngles.BATTERY_OVERFLOW), HandAngles.batteryAngle(101f), EPSILON);
+    }
+
+    @Test
+    public void quantize() {
+        assertEquals(12f, HandAngles.quantize(13f, 4f), EPSILON);
+        assertEquals(16f, HandAngles.quantize(14.5f, 4f), EPSILON);
+        assertEquals(13.3f, HandAngles.quantize(13.3f, 0f), EPSILON);
+    }
+
+    @Test
+    public void quantumMovesTheTipByThatManyPixels() {
+        float length = 200f;
+        float quantum = HandAngles.quantum(2f, length);
+        assertEquals(2f, (float)Math.toRadians(quantum) * length, EPSILON);
+    }
+}
@@ -0,0 +1,66 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class HandBoundsTest {
+    private final HandBounds mBounds = new HandBounds();
+
+    @Test
+    public void quarterTurns() {
+        /* a hand 10 wide and 100 long, pointing up from (200, 200) */
+        mBounds.set(195f, 100f, 205f, 200f);
+
+        mBounds.rotate(0f, 200f, 200f);
+        assertBounds(195, 100, 205, 200);
+        mBounds.rotate(90f, 200f, 200f);
+        assertBounds(200, 195, 300, 205);
+        mBounds.rotate(180f, 200f, 200f);
+        assertBounds(195, 200, 205, 300);
+        mBounds.rotate(270f, 200f, 200f);
+        assertBounds(100, 195, 200, 205);
+    }
+
+    /**
+     * Against the box around the four rotated corners, at every degree.
+     */
+    @Test
+    public void containsTheRotatedCorners() {
+        float[] xs = { 195.5f, 204.5f, 204.5f, 195.5f };
+        float[] ys = { 90.25f, 90.25f, 215f, 215f };
+        mBounds.set(xs[0], ys[0], xs[2], ys[2]);
+        for (int degrees = 0; degrees < 360; degrees += 1) {
+            double radians = Math.toRadians(degrees);
+            double minX = Double.MAX_VALUE;
+            double minY = Double.MAX_VALUE;
+            double maxX = -Double.MAX_VALUE;
+            double maxY = -Double.MAX_VALUE;
+            for (int i = 0; i < 4; i += 1) {
+                double dx = xs[i] - 200.0;
+                double dy = ys[i] - 200.0;
+                double x = 200.0 + dx * Math.cos(radians) - dy * Math.sin(radians);
+                double y = 200.0 + dx * Math.sin(radians) + dy * Math.cos(radians);
+                minX = Math.min(minX, x);
+                minY = Math.min(minY, y);
+                maxX = Math.max(maxX, x);
+                maxY = Math.max(maxY, y);
+            }
+            mBounds.rotate(degrees, 200f, 200f);
+            String message = degrees + " degrees";
+            assertEquals(message, (int)Math.floor(minX + 1e-3), mBounds.left, 1);
+            assertEquals(message, (int)Math.floor(minY + 1e-3), mBounds.top, 1);
+            assertEquals(message, (int)Math.ceil(maxX - 1e-3), mBounds.right, 1);
+            assertEquals(message, (int)Math.ceil(maxY - 1e-3), mBounds.bottom, 1);
+            assertEquals(true, mBounds.left <= minX + 1e-3 && mBounds.right >= maxX - 1e-3);
+            assertEquals(true, mBounds.top <= minY + 1e-3 && mBounds.bottom >= maxY - 1e-3);
+        }
+    }
+
+    private void assertBounds(int left, int top, int right, int bottom) {
+        assertEquals(left, mBounds.left);
+        assertEquals(top, mBounds.top);
+        assertEquals(right, mBounds.right);
+        assertEquals(bottom, mBounds.bottom);
+    }
+}
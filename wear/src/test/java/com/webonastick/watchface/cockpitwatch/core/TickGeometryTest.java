@@ -0,0 +1,100 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TickGeometryTest {
+    private static final float EPSILON = 1e-3f;
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+
+    @Before
+    public void setUp() {
+        mGeometry.update(400, 400);
+        mTicks.build(mGeometry);
+    }
+
+    @Test
+    public void twelveOClockTickIsVertical() {
+        float[] points = mTicks.hourPoints;
+        assertEquals(200f, points[0], EPSILON);
+        assertEquals(200f - 200f * DialGeometry.TICK_OUTER_RADIUS, points[1], EPSILON);
+        assertEquals(200f, points[2], EPSILON);
+        assertEquals(200f - 200f * DialGeometry.HOUR_TICK_INNER_RADIUS, points[3], EPSILON);
+    }
+
+    @Test
+    public void threeOClockTickIsHorizontal() {
+        float[] points = mTicks.hourPoints;
+        assertEquals(200f + 200f * DialGeometry.TICK_OUTER_RADIUS, points[4 * 3], EPSILON);
+        assertEquals(200f, points[4 * 3 + 1], EPSILON);
+        assertEquals(200f, points[4 * 3 + 3], EPSILON);
+    }
+
+    @Test
+    public void everyTickHasItsLength() {
+        assertLengths(mTicks.hourPoints,
+                200f * (DialGeometry.TICK_OUTER_RADIUS - DialGeometry.HOUR_TICK_INNER_RADIUS));
+        assertLengths(mTicks.minutePoints,
+                200f * (DialGeometry.TICK_OUTER_RADIUS - DialGeometry.MINUTE_TICK_INNER_RADIUS));
+        assertLengths(mTicks.batteryPoints,
+                mGeometry.batteryRadius * (1f - DialGeometry.HOUR_TICK_INNER_RADIUS));
+    }
+
+    @Test
+    public void tableMatchesMath() {
+        for (int size : new int[] { 320, 454 }) {
+            mGeometry.update(size, size);
+            mTicks.build(mGeometry);
+            float outer = mGeometry.radius * DialGeometry.TICK_OUTER_RADIUS;
+            int hourIndex = 0;
+            int minuteIndex = 0;
+            for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+                double radians = Math.toRadians(tick * TrigTable.DEGREES_PER_TICK);
+                float sin = (float)Math.sin(radians);
+                float cos = (float)Math.cos(radians);
+                float[] points;
+                int index;
+                float inner;
+                if (tick % TrigTable.TICKS_PER_HOUR == 0) {
+                    points = mTicks.hourPoints;
+                    index = hourIndex;
+                    inner = mGeometry.radius * DialGeometry.HOUR_TICK_INNER_RADIUS;
+                    hourIndex += 4;
+                } else {
+                    points = mTicks.minutePoints;
+                    index = minuteIndex;
+                    inner = mGeometry.radius * DialGeometry.MINUTE_TICK_INNER_RADIUS;
+                    minuteIndex += 4;
+                }
+                String message = "size " + size + " tick " + tick;
+                assertEquals(message, mGeometry.centerX + sin * outer, points[index], EPSILON);
+                assertEquals(message, mGeometry.centerY - cos * outer, points[index + 1], EPSILON);
+                assertEquals(message, mGeometry.centerX + sin * inner, points[index + 2], EPSILON);
+                assertEquals(message, mGeometry.centerY - cos * inner, points[index + 3], EPSILON);
+            }
+        }
+    }
+
+    @Test
+    public void batteryGaugeSpansNineToThreeOClock() {
+        assertEquals(-15, TickGeometry.batteryDialTick(0));
+        assertEquals(0, TickGeometry.batteryDialTick(50));
+        assertEquals(15, TickGeometry.batteryDialTick(100));
+        /* 10% is the first tick drawn, left of the gauge center and above it */
+        float[] points = mTicks.batteryPoints;
+        assertEquals(true, points[0] < mGeometry.batteryCenterX);
+        assertEquals(true, points[1] < mGeometry.batteryCenterY);
+    }
+
+    private static void assertLengths(float[] points, float length) {
+        for (int i = 0; i < points.length; i += 4) {
+            float dx = points[i + 2] - points[i];
+            float dy = points[i + 3] - points[i + 1];
+            assertEquals("line " + i / 4, length, (float)Math.sqrt(dx * dx + dy * dy), EPSILON);
+        }
+    }
+}
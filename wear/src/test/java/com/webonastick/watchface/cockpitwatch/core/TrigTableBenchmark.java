@@ -0,0 +1,107 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Before and after {@link TrigTable}: laying out and drawing the 60
+ * clock ticks with a {@link Math#sin}/{@link Math#cos} pair and one
+ * draw call per tick, as the dial used to, against the table lookups
+ * and one draw call per tick class of {@link TickGeometry}.  Drawing
+ * goes to a {@link RecordingDrawTarget}, so this measures the Java side
+ * only; the canvas rotations the old code also made per tick are not
+ * counted, which flatters the "before" case.  That both lay out the
+ * same ticks is checked by {@link TickGeometryTest}.
+ */
+public class TrigTableBenchmark {
+    private static final int[] SIZES = { 320, 454 };
+
+    private final DialGeometry mGeometry = new DialGeometry();
+    private final TickGeometry mTicks = new TickGeometry();
+    private final RecordingDrawTarget mTarget = new RecordingDrawTarget(false);
+
+    /* the old layout: one line per tick, trig per tick */
+    private final float[] mMathHourPoints = new float[4 * TickGeometry.HOUR_TICKS];
+    private final float[] mMathMinutePoints = new float[4 * TickGeometry.MINUTE_TICKS];
+    private final float[] mLine = new float[4];
+
+    @Before
+    public void setUp() {
+        BenchmarkLoop.assumeEnabled();
+    }
+
+    @Test
+    public void tableAgainstMath() {
+        BenchmarkLoop benchmark = new BenchmarkLoop("TrigTable");
+        for (final int size : SIZES) {
+            mGeometry.update(size, size);
+
+            benchmark.run(size, "ticks_math", new Runnable() {
+                @Override
+                public void run() {
+                    buildWithMath(mMathHourPoints, mMathMinutePoints);
+                }
+            });
+            benchmark.run(size, "ticks_table", new Runnable() {
+                @Override
+                public void run() {
+                    mTicks.build(mGeometry);
+                }
+            });
+            benchmark.run(size, "draw_per_tick_math", new Runnable() {
+                @Override
+                public void run() {
+                    mTarget.reset();
+                    drawPerTickWithMath();
+                }
+            });
+            benchmark.run(size, "draw_batched_table", new Runnable() {
+                @Override
+                public void run() {
+                    mTarget.reset();
+                    mTicks.build(mGeometry);
+                    mTarget.drawLines(DrawTarget.HOUR_TICKS, 0xffffffff, mTicks.hourPoints);
+                    mTarget.drawLines(DrawTarget.MINUTE_TICKS, 0xffffffff, mTicks.minutePoints);
+                }
+            });
+        }
+    }
+
+    private void buildWithMath(float[] hourPoints, float[] minutePoints) {
+        float outer = mGeometry.radius * DialGeometry.TICK_OUTER_RADIUS;
+        float hourInner = mGeometry.radius * DialGeometry.HOUR_TICK_INNER_RADIUS;
+        float minuteInner = mGeometry.radius * DialGeometry.MINUTE_TICK_INNER_RADIUS;
+        int hourIndex = 0;
+        int minuteIndex = 0;
+        for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+            if (tick % TrigTable.TICKS_PER_HOUR == 0) {
+                putLineWithMath(hourPoints, hourIndex, tick, outer, hourInner);
+                hourIndex += 4;
+            } else {
+                putLineWithMath(minutePoints, minuteIndex, tick, outer, minuteInner);
+                minuteIndex += 4;
+            }
+        }
+    }
+
+    private void drawPerTickWithMath() {
+        float outer = mGeometry.radius * DialGeometry.TICK_OUTER_RADIUS;
+        for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+            boolean hour = tick % TrigTable.TICKS_PER_HOUR == 0;
+            float inner = mGeometry.radius
+                    * (hour ? DialGeometry.HOUR_TICK_INNER_RADIUS : DialGeometry.MINUTE_TICK_INNER_RADIUS);
+            putLineWithMath(mLine, 0, tick, outer, inner);
+            mTarget.drawLines(hour ? DrawTarget.HOUR_TICKS : DrawTarget.MINUTE_TICKS, 0xffffffff, mLine);
+        }
+    }
+
+    private void putLineWithMath(float[] points, int index, int tick, float outerRadius, float innerRadius) {
+        double radians = Math.toRadians(tick * TrigTable.DEGREES_PER_TICK);
+        float sin = (float)Math.sin(radians);
+        float cos = (float)Math.cos(radians);
+        points[index]     = mGeometry.centerX + sin * outerRadius;
+        points[index + 1] = mGeometry.centerY - cos * outerRadius;
+        points[index + 2] = mGeometry.centerX + sin * innerRadius;
+        points[index + 3] = mGeometry.centerY - cos * innerRadius;
+    }
+}
@@ -0,0 +1,47 @@
+package com.webonastick.watchface.cockpitwatch.core;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class TrigTableTest {
+    private static final float EPSILON = 1e-6f;
+
+    @Test
+    public void matchesMathAtEveryTick() {
+        for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+            double radians = Math.toRadians(tick * TrigTable.DEGREES_PER_TICK);
+            assertEquals("sin " + tick, Math.sin(radians), TrigTable.sin(tick), EPSILON);
+            assertEquals("cos " + tick, Math.cos(radians), TrigTable.cos(tick), EPSILON);
+        }
+    }
+
+    @Test
+    public void quartersAreExact() {
+        assertEquals(0f, TrigTable.sin(0), 0f);
+        assertEquals(1f, TrigTable.cos(0), 0f);
+        assertEquals(1f, TrigTable.sin(15), 0f);
+        assertEquals(0f, TrigTable.cos(15), 0f);
+        assertEquals(0f, TrigTable.sin(30), 0f);
+        assertEquals(-1f, TrigTable.cos(30), 0f);
+        assertEquals(-1f, TrigTable.sin(45), 0f);
+        assertEquals(0f, TrigTable.cos(45), 0f);
+    }
+
+    @Test
+    public void ticksWrapAroundTheDial() {
+        for (int tick = 0; tick < TrigTable.TICKS; tick += 1) {
+            assertEquals(TrigTable.sin(tick), TrigTable.sin(tick + TrigTable.TICKS), 0f);
+            assertEquals(TrigTable.sin(tick), TrigTable.sin(tick - TrigTable.TICKS), 0f);
+            assertEquals(TrigTable.cos(tick), TrigTable.cos(tick - 3 * TrigTable.TICKS), 0f);
+        }
+    }
+
+    @Test
+    public void hourTicks() {
+        assertEquals(0, TrigTable.hourTick(0));
+        assertEquals(0, TrigTable.hourTick(12));
+        assertEquals(15, TrigTable.hourTick(3));
+        assertEquals(55, TrigTable.hourTick(11));
+    }
+}